@@ -0,0 +1,50 @@
+package com.example.books.benchmark;
+
+import com.example.books.dto.BookDto;
+import com.example.books.dto.CreateBookDto;
+import com.example.books.model.BookStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Генерация тестовых данных для бенчмарков
+final class BenchmarkData {
+
+    private static final BookStatus[] STATUSES = BookStatus.values();
+
+    private BenchmarkData() {}
+
+    static BookDto book(long id) {
+        BookDto dto = new BookDto(
+                id,
+                "Книга номер " + id,
+                "Автор " + (id % 1000),
+                "Описание книги номер " + id + ": роман о русском обществе девятнадцатого века.",
+                1800 + (int) (id % 224),
+                50 + (int) (id % 1500),
+                "978-5-17-102143-6",
+                STATUSES[(int) (id % STATUSES.length)]);
+        dto.setCreatedAt(LocalDate.of(2024, 1, 1));
+        dto.setUpdatedAt(LocalDate.of(2024, 1, 2));
+        return dto;
+    }
+
+    static List<BookDto> books(int count) {
+        List<BookDto> books = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            books.add(book(i));
+        }
+        return books;
+    }
+
+    static CreateBookDto createBook(String isbn) {
+        return new CreateBookDto(
+                "Война и мир",
+                "Лев Толстой",
+                "Роман-эпопея Льва Николаевича Толстого.",
+                1869,
+                1274,
+                isbn);
+    }
+}
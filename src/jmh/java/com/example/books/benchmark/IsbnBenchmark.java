@@ -0,0 +1,48 @@
+package com.example.books.benchmark;
+
+import com.example.books.validation.Isbns;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// Проверка ISBN: прежнее регулярное выражение из @Pattern против разбора Isbns
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IsbnBenchmark {
+
+    private static final Pattern ISBN_REGEX = Pattern.compile(
+            "^(?:ISBN(?:-1[03])?:? )?(?=[0-9X]{10}$|(?=(?:[0-9]+[- ]){3})[- 0-9X]{13}$|97[89][0-9]{10}$|(?=(?:[0-9]+[- ]){4})[- 0-9]{17}$)(?:97[89][- ]?)?[0-9]{1,5}[- ]?[0-9]+[- ]?[0-9]+[- ]?[0-9X]$");
+
+    @Param({"978-5-17-102143-6", "9785171021436", "ISBN-10: 0-306-40615-2", "978-5-17-10214"})
+    public String isbn;
+
+    @Benchmark
+    public boolean regex() {
+        return ISBN_REGEX.matcher(isbn).matches();
+    }
+
+    // Разбор с проверкой контрольной цифры (регулярное выражение ее не проверяет)
+    @Benchmark
+    public boolean parser() {
+        return Isbns.isValid(isbn);
+    }
+
+    @Benchmark
+    public String normalize() {
+        return Isbns.normalize(isbn);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.books.benchmark;
+
+import com.example.books.BooksApplication;
+import com.example.books.search.BookSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Нагрузочное сравнение блокирующего (/api/books) и реактивного (/api/reactive/books) чтения по HTTP:
+// 64 потока клиента одновременно запрашивают книгу по ID и поиск по автору.
+// Блокирующие эндпоинты обслуживаются кэшами и поисковым индексом, реактивные каждый раз читают БД
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(1)
+public class ReactiveReadBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String database = "benchreactive" + rows;
+        context = new SpringApplicationBuilder(BooksApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "spring.r2dbc.url=r2dbc:h2:mem:///" + database + "?options=DB_CLOSE_DELAY=-1",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.h2.console.enabled=false",
+                        "server.compression.enabled=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.books=WARN")
+                .run();
+        RepositoryBenchmark.seed(context.getBean(JdbcTemplate.class), rows);
+        // Индекс строился при старте по пустой таблице
+        context.getBean(BookSearchIndex.class).rebuild();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int blockingGetById() throws IOException, InterruptedException {
+        return get("/api/books/" + randomId());
+    }
+
+    @Benchmark
+    public int reactiveGetById() throws IOException, InterruptedException {
+        return get("/api/reactive/books/" + randomId());
+    }
+
+    @Benchmark
+    public int blockingSearchByAuthor() throws IOException, InterruptedException {
+        return get("/api/books/search/author?author=" + randomAuthor());
+    }
+
+    @Benchmark
+    public int reactiveSearchByAuthor() throws IOException, InterruptedException {
+        return get("/api/reactive/books/search/author?author=" + randomAuthor());
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    // Трехзначный номер автора совпадает ровно с одним автором: около rows / 1000 книг
+    private String randomAuthor() {
+        return URLEncoder.encode("Автор " + ThreadLocalRandom.current().nextInt(100, 1000), StandardCharsets.UTF_8);
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Accept", "application/json")
+                        .GET()
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + " для " + path);
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.books.benchmark;
+
+import com.example.books.BooksApplication;
+import com.example.books.model.Book;
+import com.example.books.model.BookStatus;
+import com.example.books.repository.BookRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Запросы BookRepository к H2 с заранее заполненной таблицей
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private BookRepository bookRepository;
+
+    private PageRequest middlePage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BooksApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench" + rows + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "spring.h2.console.enabled=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.books=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+                .run();
+        bookRepository = context.getBean(BookRepository.class);
+        seed(context.getBean(JdbcTemplate.class), rows);
+        middlePage = PageRequest.of(rows / PAGE_SIZE / 2, PAGE_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Book> findByKeyword() {
+        return bookRepository.findByKeyword("номер 4242");
+    }
+
+    @Benchmark
+    public Page<Book> findAllMiddlePage() {
+        return bookRepository.findAll(middlePage);
+    }
+
+    @Benchmark
+    public long countByStatus() {
+        return bookRepository.countByStatus(BookStatus.BORROWED);
+    }
+
+    // Заполнение таблицы одним INSERT ... SELECT средствами H2
+    static void seed(JdbcTemplate jdbcTemplate, int rows) {
+        jdbcTemplate.update("""
+                INSERT INTO books (id, title, author, description, publication_year, pages, isbn, status,
+                                   created_at, updated_at, version)
+                SELECT X,
+                       'Книга номер ' || X,
+                       'Автор ' || MOD(X, 1000),
+                       'Описание книги номер ' || X || ': роман о русском обществе девятнадцатого века.',
+                       1800 + MOD(X, 224),
+                       50 + MOD(X, 1500),
+                       NULL,
+                       CASE MOD(X, 4) WHEN 0 THEN 'AVAILABLE' WHEN 1 THEN 'BORROWED'
+                                      WHEN 2 THEN 'RESERVED' ELSE 'MAINTENANCE' END,
+                       CURRENT_DATE,
+                       CURRENT_DATE,
+                       0
+                FROM SYSTEM_RANGE(1, ?)
+                """, rows);
+    }
+}
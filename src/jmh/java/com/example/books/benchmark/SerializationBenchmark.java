@@ -0,0 +1,108 @@
+package com.example.books.benchmark;
+
+import com.example.books.dto.BookDto;
+import com.example.books.serialization.BookFormat;
+import com.example.books.serialization.SerializedBookCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Сериализация списков BookDto в JSON, CBOR и Smile тем же Jackson, что и в приложении:
+// полная сериализация и сборка из готовых байтов SerializedBookCache.
+// Вторичная метрика bytes (байт/с) деленная на основную (оп/с) дает размер ответа
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int listSize;
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public BookFormat format;
+
+    private List<BookDto> books;
+
+    private ObjectWriter writer;
+
+    private SerializedBookCache serializedBookCache;
+
+    // Объем сериализованных данных: выводится в отчете JMH рядом с оп/с для каждой пары (listSize, format),
+    // размер одного ответа - bytes / оп/с
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class PayloadCounters {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        books = BenchmarkData.books(listSize);
+        ObjectMapper jsonMapper = mapperBuilder().build();
+        ObjectMapper cborMapper = mapperBuilder().factory(new CBORFactory()).build();
+        ObjectMapper smileMapper = mapperBuilder().factory(new SmileFactory()).build();
+        ObjectMapper mapper = switch (format) {
+            case JSON -> jsonMapper;
+            case CBOR -> cborMapper;
+            case SMILE -> smileMapper;
+        };
+        writer = mapper.writerFor(BookDto.class.arrayType());
+        serializedBookCache = new SerializedBookCache(jsonMapper,
+                new MappingJackson2CborHttpMessageConverter(cborMapper),
+                new MappingJackson2SmileHttpMessageConverter(smileMapper),
+                DataSize.ofMegabytes(32),
+                new SimpleMeterRegistry());
+    }
+
+    private static Jackson2ObjectMapperBuilder mapperBuilder() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Benchmark
+    public byte[] serializeList(PayloadCounters counters) throws Exception {
+        byte[] bytes = writer.writeValueAsBytes(books.toArray(new BookDto[0]));
+        counters.bytes += bytes.length;
+        return bytes;
+    }
+
+    // Сборка ответа из байтов, уже сериализованных для горячих книг
+    @Benchmark
+    public byte[] serializeListPreSerialized(PayloadCounters counters) {
+        byte[] bytes = serializedBookCache.getList(books, format);
+        counters.bytes += bytes.length;
+        return bytes;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.books.service;
+
+import com.example.books.dto.BookDto;
+import com.example.books.dto.CreateBookDto;
+import com.example.books.model.Book;
+import com.example.books.model.BookStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Конвертация Book <-> DTO в BookService
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    private Book book;
+
+    private CreateBookDto createBookDto;
+
+    @Setup
+    public void setUp() {
+        createBookDto = new CreateBookDto(
+                "Война и мир",
+                "Лев Толстой",
+                "Роман-эпопея Льва Николаевича Толстого, описывающий русское общество в эпоху войн против Наполеона.",
+                1869,
+                1274,
+                "978-5-17-102143-6");
+        book = BookService.convertToEntity(createBookDto);
+        book.setId(42L);
+        book.setStatus(BookStatus.BORROWED);
+    }
+
+    @Benchmark
+    public BookDto convertToDto() {
+        return BookService.convertToDto(book);
+    }
+
+    @Benchmark
+    public Book convertToEntity() {
+        return BookService.convertToEntity(createBookDto);
+    }
+}
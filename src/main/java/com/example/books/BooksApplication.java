@@ -2,8 +2,13 @@ package com.example.books;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// R2DBC используется только для чтения: реактивный менеджер транзакций не нужен
+// и не должен подменять JpaTransactionManager
+@SpringBootApplication(exclude = R2dbcTransactionManagerAutoConfiguration.class)
+@EnableScheduling
 public class BooksApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,439 @@
+package com.example.books.analytics;
+
+import com.example.books.dto.BookDto;
+import com.example.books.event.BookChangeType;
+import com.example.books.event.BookChangedEvent;
+import com.example.books.event.BookEvent;
+import com.example.books.event.BookEventBatch;
+import com.example.books.event.BookStatusBulkChangedEvent;
+import com.example.books.event.BooksClearedEvent;
+import com.example.books.model.BookStatus;
+import com.example.books.repository.BookColumns;
+import com.example.books.repository.BookRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Колоночный снимок книг в памяти для аналитики: год, страницы и статус в примитивных массивах,
+// авторы закодированы по словарю. Обновляется событиями из outbox и периодически перестраивается
+@Component
+public class BookColumnarSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(BookColumnarSnapshot.class);
+
+    // Отсутствующее значение года или числа страниц
+    private static final int NO_VALUE = Integer.MIN_VALUE;
+
+    // Код статуса свободной (удаленной) строки
+    private static final byte FREE_ROW = -1;
+
+    // Любой статус в фильтре
+    private static final int ANY_STATUS = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final BookStatus[] STATUSES = BookStatus.values();
+
+    private static final double[] PERCENTILES = {50, 75, 90, 95, 99};
+
+    private final BookRepository bookRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Lock rebuildLock = new ReentrantLock();
+
+    private Columns columns = new Columns(INITIAL_CAPACITY);
+
+    // Изменения, пришедшие во время перестроения: повторяются на новом снимке перед подменой
+    private final List<Consumer<Columns>> pendingDuringRebuild = new ArrayList<>();
+
+    private boolean rebuilding;
+
+    private volatile boolean ready;
+
+    @Autowired
+    public BookColumnarSnapshot(BookRepository bookRepository, MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        Gauge.builder("books.analytics.snapshot.rows", this, BookColumnarSnapshot::size)
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns.live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Полное перестроение потоковым чтением только нужных колонок; снимок подменяется целиком
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${books.analytics.rebuild-interval-ms:600000}",
+               initialDelayString = "${books.analytics.rebuild-interval-ms:600000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            doRebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Построить снимок, если он еще не построен (первый запрос до завершения старта)
+    @Transactional(readOnly = true)
+    public void rebuildIfNotReady() {
+        rebuildLock.lock();
+        try {
+            if (!ready) {
+                doRebuild();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void doRebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            pendingDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Columns fresh = new Columns(Math.max(INITIAL_CAPACITY, size()));
+        boolean completed = false;
+        try (Stream<BookColumns> rows = bookRepository.streamColumns()) {
+            rows.forEach(row -> fresh.upsert(row.getId(), row.getAuthor(), row.getPublicationYear(),
+                    row.getPages(), row.getStatus()));
+            completed = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (completed) {
+                    pendingDuringRebuild.forEach(change -> change.accept(fresh));
+                    columns = fresh;
+                }
+                pendingDuringRebuild.clear();
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        ready = true;
+        log.info("Аналитический снимок построен: {} книг за {} мс", fresh.live, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // События из outbox (фоновый поток BookOutboxRelay); upsert, remove и setStatus идемпотентны,
+    // поэтому повторная доставка порции не искажает снимок
+    @EventListener
+    public void onEvents(BookEventBatch batch) {
+        for (BookEvent event : batch.events()) {
+            switch (event) {
+                case BookChangedEvent changed -> onBookChanged(changed);
+                case BookStatusBulkChangedEvent bulk -> onBooksStatusChanged(bulk);
+                case BooksClearedEvent cleared -> apply(Columns::clear);
+            }
+        }
+    }
+
+    private void onBookChanged(BookChangedEvent event) {
+        if (event.type() == BookChangeType.DELETED) {
+            apply(target -> target.remove(event.bookId()));
+        } else {
+            BookDto book = event.book();
+            apply(target -> target.upsert(book.getId(), book.getAuthor(), book.getPublicationYear(),
+                    book.getPages(), book.getStatus()));
+        }
+    }
+
+    private void onBooksStatusChanged(BookStatusBulkChangedEvent event) {
+        apply(target -> event.bookIds().forEach(id -> target.setStatus(id, event.newStatus())));
+    }
+
+    private void apply(Consumer<Columns> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(columns);
+            if (rebuilding) {
+                pendingDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Количество книг, подходящих под условия (null - условие не применяется)
+    public long count(BookStatus status, Integer yearFrom, Integer yearTo, Integer minPages, Integer maxPages) {
+        int statusCode = statusCode(status);
+        int yearLow = yearFrom != null ? yearFrom : NO_VALUE + 1;
+        int yearHigh = yearTo != null ? yearTo : Integer.MAX_VALUE;
+        int pagesLow = minPages != null ? minPages : NO_VALUE + 1;
+        int pagesHigh = maxPages != null ? maxPages : Integer.MAX_VALUE;
+        boolean anyYear = yearFrom == null && yearTo == null;
+        boolean anyPages = minPages == null && maxPages == null;
+
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            long count = 0;
+            for (int i = 0; i < c.size; i++) {
+                byte rowStatus = c.statuses[i];
+                int year = c.years[i];
+                int pageCount = c.pages[i];
+                boolean match = rowStatus != FREE_ROW
+                        & (statusCode == ANY_STATUS | rowStatus == statusCode)
+                        & (anyYear | (year >= yearLow & year <= yearHigh))
+                        & (anyPages | (pageCount >= pagesLow & pageCount <= pagesHigh));
+                count += match ? 1 : 0;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Гистограмма по десятилетиям: начало десятилетия -> количество книг
+    public Map<Integer, Long> decadeHistogram(BookStatus status) {
+        int statusCode = statusCode(status);
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            int minYear = Integer.MAX_VALUE;
+            int maxYear = Integer.MIN_VALUE;
+            for (int i = 0; i < c.size; i++) {
+                if (matchesStatus(c.statuses[i], statusCode) && c.years[i] != NO_VALUE) {
+                    minYear = Math.min(minYear, c.years[i]);
+                    maxYear = Math.max(maxYear, c.years[i]);
+                }
+            }
+            Map<Integer, Long> histogram = new TreeMap<>();
+            if (minYear > maxYear) {
+                return histogram;
+            }
+
+            int firstDecade = Math.floorDiv(minYear, 10);
+            long[] buckets = new long[Math.floorDiv(maxYear, 10) - firstDecade + 1];
+            for (int i = 0; i < c.size; i++) {
+                if (matchesStatus(c.statuses[i], statusCode) && c.years[i] != NO_VALUE) {
+                    buckets[Math.floorDiv(c.years[i], 10) - firstDecade]++;
+                }
+            }
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                if (buckets[bucket] > 0) {
+                    histogram.put((firstDecade + bucket) * 10, buckets[bucket]);
+                }
+            }
+            return histogram;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Перцентили количества страниц (по ближайшему рангу), минимум, максимум и среднее
+    public Map<String, Number> pagePercentiles(BookStatus status, Integer yearFrom, Integer yearTo) {
+        int statusCode = statusCode(status);
+        int yearLow = yearFrom != null ? yearFrom : Integer.MIN_VALUE;
+        int yearHigh = yearTo != null ? yearTo : Integer.MAX_VALUE;
+        boolean anyYear = yearFrom == null && yearTo == null;
+
+        int[] values;
+        int count = 0;
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            values = new int[c.live];
+            for (int i = 0; i < c.size; i++) {
+                int year = c.years[i];
+                if (matchesStatus(c.statuses[i], statusCode) && c.pages[i] != NO_VALUE
+                        && (anyYear || (year != NO_VALUE && year >= yearLow && year <= yearHigh))) {
+                    values[count++] = c.pages[i];
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, Number> result = new LinkedHashMap<>();
+        result.put("count", count);
+        if (count == 0) {
+            return result;
+        }
+        Arrays.sort(values, 0, count);
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += values[i];
+        }
+        result.put("min", values[0]);
+        result.put("max", values[count - 1]);
+        result.put("mean", (double) sum / count);
+        for (double percentile : PERCENTILES) {
+            int rank = (int) Math.ceil(percentile / 100 * count);
+            result.put("p" + (int) percentile, values[Math.max(rank, 1) - 1]);
+        }
+        return result;
+    }
+
+    // Количество книг по авторам, по убыванию; limit - число авторов в ответе
+    public Map<String, Long> authorCounts(BookStatus status, int limit) {
+        int statusCode = statusCode(status);
+        String[] names;
+        long[] counts;
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            names = c.authorNames.toArray(new String[0]);
+            counts = new long[names.length];
+            for (int i = 0; i < c.size; i++) {
+                if (matchesStatus(c.statuses[i], statusCode)) {
+                    counts[c.authors[i]]++;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Integer> codes = new ArrayList<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                codes.add(code);
+            }
+        }
+        codes.sort((left, right) -> counts[left] != counts[right]
+                ? Long.compare(counts[right], counts[left])
+                : names[left].compareTo(names[right]));
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int code : codes.subList(0, Math.min(limit, codes.size()))) {
+            result.put(names[code], counts[code]);
+        }
+        return result;
+    }
+
+    private static int statusCode(BookStatus status) {
+        return status != null ? status.ordinal() : ANY_STATUS;
+    }
+
+    private static boolean matchesStatus(byte rowStatus, int statusCode) {
+        return rowStatus != FREE_ROW && (statusCode == ANY_STATUS || rowStatus == statusCode);
+    }
+
+    // Колонки снимка; изменяются только под блокировкой записи
+    private static final class Columns {
+
+        private long[] ids;
+        private int[] years;
+        private int[] pages;
+        private byte[] statuses;
+        private int[] authors;
+
+        // Граница занятых строк (включая освобожденные) и число живых строк
+        private int size;
+        private int live;
+
+        private final Map<Long, Integer> rowById = new HashMap<>();
+
+        private int[] freeRows = new int[16];
+        private int freeCount;
+
+        private final Map<String, Integer> authorCodes = new HashMap<>();
+        private final List<String> authorNames = new ArrayList<>();
+
+        Columns(int capacity) {
+            ids = new long[capacity];
+            years = new int[capacity];
+            pages = new int[capacity];
+            statuses = new byte[capacity];
+            authors = new int[capacity];
+        }
+
+        void upsert(Long id, String author, Integer year, Integer pageCount, BookStatus status) {
+            Integer row = rowById.get(id);
+            if (row == null) {
+                row = allocateRow();
+                rowById.put(id, row);
+                live++;
+            }
+            ids[row] = id;
+            years[row] = year != null ? year : NO_VALUE;
+            pages[row] = pageCount != null ? pageCount : NO_VALUE;
+            statuses[row] = (byte) (status != null ? status : BookStatus.AVAILABLE).ordinal();
+            authors[row] = authorCodes.computeIfAbsent(author != null ? author : "", name -> {
+                authorNames.add(name);
+                return authorNames.size() - 1;
+            });
+        }
+
+        void setStatus(Long id, BookStatus status) {
+            Integer row = rowById.get(id);
+            if (row != null) {
+                statuses[row] = (byte) status.ordinal();
+            }
+        }
+
+        void remove(Long id) {
+            Integer row = rowById.remove(id);
+            if (row == null) {
+                return;
+            }
+            statuses[row] = FREE_ROW;
+            live--;
+            if (freeCount == freeRows.length) {
+                freeRows = Arrays.copyOf(freeRows, freeRows.length * 2);
+            }
+            freeRows[freeCount++] = row;
+        }
+
+        void clear() {
+            size = 0;
+            live = 0;
+            freeCount = 0;
+            rowById.clear();
+            authorCodes.clear();
+            authorNames.clear();
+        }
+
+        private int allocateRow() {
+            if (freeCount > 0) {
+                return freeRows[--freeCount];
+            }
+            if (size == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                years = Arrays.copyOf(years, capacity);
+                pages = Arrays.copyOf(pages, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+                authors = Arrays.copyOf(authors, capacity);
+            }
+            return size++;
+        }
+    }
+}
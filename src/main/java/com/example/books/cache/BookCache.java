@@ -0,0 +1,83 @@
+package com.example.books.cache;
+
+import com.example.books.dto.BookDto;
+import com.example.books.event.BookChangedEvent;
+import com.example.books.event.BookStatusBulkChangedEvent;
+import com.example.books.event.BooksClearedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// Кэш BookDto по ID с ограничением по размеру и времени жизни
+@Component
+public class BookCache {
+
+    private final Cache<Long, BookDto> cache;
+
+    public BookCache(@Value("${books.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${books.cache.ttl:10m}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "books");
+    }
+
+    // Получить книгу из кэша или загрузить ее; одновременные промахи по одному ID выполняют одну загрузку
+    public BookDto get(Long id, Function<Long, BookDto> loader) {
+        return cache.get(id, loader);
+    }
+
+    public BookDto getIfPresent(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // Инвалидация после фиксации транзакции записи
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        invalidate(event.bookId());
+    }
+
+    @TransactionalEventListener
+    public void onBooksStatusChanged(BookStatusBulkChangedEvent event) {
+        cache.invalidateAll(event.bookIds());
+    }
+
+    @TransactionalEventListener
+    public void onBooksCleared(BooksClearedEvent event) {
+        invalidateAll();
+    }
+
+    // Счетчики попаданий, промахов и вытеснений
+    public Map<String, Long> getStatistics() {
+        CacheStats stats = cache.stats();
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("size", cache.estimatedSize());
+        statistics.put("hits", stats.hitCount());
+        statistics.put("misses", stats.missCount());
+        statistics.put("evictions", stats.evictionCount());
+        statistics.put("loads", stats.loadSuccessCount());
+        statistics.put("loadFailures", stats.loadFailureCount());
+        return statistics;
+    }
+}
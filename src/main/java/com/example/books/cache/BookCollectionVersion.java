@@ -0,0 +1,45 @@
+package com.example.books.cache;
+
+import com.example.books.event.BookChangedEvent;
+import com.example.books.event.BookStatusBulkChangedEvent;
+import com.example.books.event.BooksClearedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Версия коллекции книг для условных GET списков: увеличивается после фиксации любой записи.
+// Времени изменения нет: секундная точность Last-Modified не различает записи внутри одной секунды,
+// поэтому списки проверяются только по ETag
+@Component
+public class BookCollectionVersion {
+
+    // Метка запуска: после перезапуска старые ETag клиентов не совпадут
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    // Метка версии без кавычек; ETag ответа к ней добавляет формат представления
+    public String getTag() {
+        return "books-" + epoch + "-" + version.get();
+    }
+
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @TransactionalEventListener
+    public void onBooksStatusChanged(BookStatusBulkChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @TransactionalEventListener
+    public void onBooksCleared(BooksClearedEvent event) {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.books.cache;
+
+import com.example.books.event.BookChangeType;
+import com.example.books.event.BookChangedEvent;
+import com.example.books.event.BooksClearedEvent;
+import com.example.books.repository.BookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Считающий фильтр Блума по существующим ISBN: ответ "нет" точен, ответ "возможно" проверяется в БД.
+// Удаления уменьшают счетчики; при росте числа книг фильтр перестраивается с большим размером.
+// Окончательно уникальность обеспечивает ограничение UNIQUE в БД
+@Component
+public class IsbnBloomFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(IsbnBloomFilter.class);
+
+    // Насыщенный счетчик больше не уменьшается, чтобы не появилось ложноотрицательных ответов
+    private static final int MAX_COUNT = 0xFF;
+
+    private static final int MAX_CELLS = Integer.MAX_VALUE - 8;
+
+    private final BookRepository bookRepository;
+
+    private final long expectedInsertions;
+
+    private final double targetFpp;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Lock rebuildLock = new ReentrantLock();
+
+    private byte[] counters = new byte[0];
+
+    private int hashFunctions;
+
+    private long elements;
+
+    // ISBN, добавленные во время перестроения: повторяются на новом фильтре
+    private final List<String> addedDuringRebuild = new ArrayList<>();
+
+    private boolean rebuilding;
+
+    private volatile boolean ready;
+
+    private final Counter absentChecks;
+
+    private final Counter maybeChecks;
+
+    private final Counter falsePositives;
+
+    @Autowired
+    public IsbnBloomFilter(BookRepository bookRepository,
+                           @Value("${books.isbn-filter.expected-insertions:1000000}") long expectedInsertions,
+                           @Value("${books.isbn-filter.false-positive-rate:0.01}") double targetFpp,
+                           MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.targetFpp = targetFpp;
+        this.absentChecks = Counter.builder("books.isbn.filter.checks").tag("result", "absent").register(meterRegistry);
+        this.maybeChecks = Counter.builder("books.isbn.filter.checks").tag("result", "maybe").register(meterRegistry);
+        this.falsePositives = Counter.builder("books.isbn.filter.false.positives").register(meterRegistry);
+        Gauge.builder("books.isbn.filter.memory", this, IsbnBloomFilter::memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("books.isbn.filter.elements", this, IsbnBloomFilter::elements)
+                .register(meterRegistry);
+        Gauge.builder("books.isbn.filter.expected.fpp", this, IsbnBloomFilter::expectedFalsePositiveRate)
+                .register(meterRegistry);
+        Gauge.builder("books.isbn.filter.observed.fpp", this, IsbnBloomFilter::observedFalsePositiveRate)
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // false - ISBN точно отсутствует; true - возможно присутствует (или фильтр еще не построен)
+    public boolean mightContain(String isbn) {
+        if (!ready) {
+            return true;
+        }
+        long key = key(isbn);
+        boolean maybe;
+        lock.readLock().lock();
+        try {
+            maybe = test(counters, hashFunctions, key);
+        } finally {
+            lock.readLock().unlock();
+        }
+        (maybe ? maybeChecks : absentChecks).increment();
+        return maybe;
+    }
+
+    // Фильтр ответил "возможно", а в БД ISBN не нашелся
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    public void add(String isbn) {
+        long key = key(isbn);
+        lock.writeLock().lock();
+        try {
+            increment(counters, hashFunctions, key);
+            elements++;
+            if (rebuilding) {
+                addedDuringRebuild.add(isbn);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String isbn) {
+        long key = key(isbn);
+        lock.writeLock().lock();
+        try {
+            if (!test(counters, hashFunctions, key)) {
+                return;
+            }
+            for (int i = 0; i < hashFunctions; i++) {
+                int cell = cell(key, i, counters.length);
+                int count = counters[cell] & 0xFF;
+                if (count < MAX_COUNT) {
+                    counters[cell] = (byte) (count - 1);
+                }
+            }
+            elements = Math.max(0, elements - 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Построение потоковым чтением ISBN; размер рассчитывается на удвоенное текущее число книг
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${books.isbn-filter.rebuild-interval-ms:3600000}",
+               initialDelayString = "${books.isbn-filter.rebuild-interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            doRebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void doRebuild() {
+        long started = System.nanoTime();
+        long capacity = Math.max(expectedInsertions, bookRepository.count() * 2);
+        int cells = (int) Math.min(MAX_CELLS,
+                Math.ceil(-capacity * Math.log(targetFpp) / (Math.log(2) * Math.log(2))));
+        int functions = Math.max(1, (int) Math.round((double) cells / capacity * Math.log(2)));
+
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            addedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        byte[] fresh = new byte[cells];
+        long count = 0;
+        boolean completed = false;
+        try (Stream<String> isbns = bookRepository.streamIsbns()) {
+            for (String isbn : (Iterable<String>) isbns::iterator) {
+                increment(fresh, functions, key(isbn));
+                count++;
+            }
+            completed = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                // Удаления во время перестроения не повторяются: лишний счетчик дает лишь ложноположительный ответ
+                if (completed) {
+                    for (String isbn : addedDuringRebuild) {
+                        increment(fresh, functions, key(isbn));
+                        count++;
+                    }
+                    counters = fresh;
+                    hashFunctions = functions;
+                    elements = count;
+                }
+                addedDuringRebuild.clear();
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        ready = true;
+        log.info("Фильтр ISBN построен: {} ISBN, {} КБ, {} хеш-функций за {} мс",
+                count, cells / 1024, functions, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        String currentIsbn = event.type() == BookChangeType.DELETED ? null : event.book().getIsbn();
+        if (event.type() == BookChangeType.UPDATED && Objects.equals(event.previousIsbn(), currentIsbn)) {
+            return;
+        }
+        if (event.previousIsbn() != null) {
+            remove(event.previousIsbn());
+        }
+        if (currentIsbn != null) {
+            add(currentIsbn);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onBooksCleared(BooksClearedEvent event) {
+        lock.writeLock().lock();
+        try {
+            counters = new byte[counters.length];
+            elements = 0;
+            addedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            return counters.length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long elements() {
+        lock.readLock().lock();
+        try {
+            return elements;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Теоретическая вероятность ложноположительного ответа (1 - e^(-kn/m))^k
+    public double expectedFalsePositiveRate() {
+        lock.readLock().lock();
+        try {
+            if (counters.length == 0) {
+                return 0;
+            }
+            return Math.pow(1 - Math.exp(-(double) hashFunctions * elements / counters.length), hashFunctions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Доля ISBN, отсутствующих в БД, на которые фильтр ответил "возможно"
+    public double observedFalsePositiveRate() {
+        double negatives = absentChecks.count() + falsePositives.count();
+        return negatives == 0 ? 0 : falsePositives.count() / negatives;
+    }
+
+    private static boolean test(byte[] counters, int functions, long key) {
+        if (counters.length == 0) {
+            return false;
+        }
+        for (int i = 0; i < functions; i++) {
+            if (counters[cell(key, i, counters.length)] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void increment(byte[] counters, int functions, long key) {
+        for (int i = 0; i < functions; i++) {
+            int cell = cell(key, i, counters.length);
+            int count = counters[cell] & 0xFF;
+            if (count < MAX_COUNT) {
+                counters[cell] = (byte) (count + 1);
+            }
+        }
+    }
+
+    // Двойное хеширование: i-я функция = h1 + i * h2
+    private static int cell(long key, int i, int cells) {
+        long h1 = mix(key);
+        long h2 = mix(h1) | 1;
+        return (int) Math.floorMod(h1 + i * h2, (long) cells);
+    }
+
+    // Канонический ISBN-13 укладывается в long без потерь; прочие строки хешируются посимвольно
+    private static long key(String isbn) {
+        long value = 0;
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            value = c >= '0' && c <= '9' && value < Long.MAX_VALUE / 10 ? value * 10 + (c - '0') : value * 31 + c;
+        }
+        return value;
+    }
+
+    // Финализатор MurmurHash3 (fmix64)
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
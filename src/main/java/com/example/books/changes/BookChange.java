@@ -0,0 +1,75 @@
+package com.example.books.changes;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+// Запись ленты изменений: для каждой книги хранится только последнее изменение
+@Entity
+@Table(name = "book_changes", indexes = @Index(name = "idx_book_changes_book_id", columnList = "book_id"))
+public class BookChange implements Persistable<Long> {
+
+    // Монотонно растущий номер изменения (токен синхронизации). Назначается BookChangeLog
+    // под блокировкой доставки outbox, а не кэшируемой последовательностью: блоки последовательности
+    // у разных экземпляров приложения дали бы номера не в порядке фиксации
+    @Id
+    private Long seq;
+
+    // ID книги (null для CLEAR)
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private BookChangeKind changeType;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    // Новая запись сохраняется через persist, без предварительного SELECT по назначенному ключу
+    @Transient
+    private boolean isNew = true;
+
+    public BookChange() {
+    }
+
+    public BookChange(Long seq, Long bookId, BookChangeKind changeType) {
+        this.seq = seq;
+        this.bookId = bookId;
+        this.changeType = changeType;
+        this.changedAt = Instant.now();
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public Long getId() {
+        return seq;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public BookChangeKind getChangeType() {
+        return changeType;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
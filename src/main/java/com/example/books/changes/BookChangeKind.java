@@ -0,0 +1,11 @@
+package com.example.books.changes;
+
+// Вид записи ленты изменений
+public enum BookChangeKind {
+    // Книга создана или изменена: клиент запрашивает ее текущее состояние
+    UPSERT,
+    // Книга удалена (tombstone)
+    DELETE,
+    // Удалены все книги: клиент очищает свою копию
+    CLEAR
+}
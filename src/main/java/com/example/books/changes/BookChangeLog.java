@@ -0,0 +1,87 @@
+package com.example.books.changes;
+
+import com.example.books.event.BookChangeType;
+import com.example.books.event.BookChangedEvent;
+import com.example.books.event.BookEvent;
+import com.example.books.event.BookStatusBulkChangedEvent;
+import com.example.books.event.BooksClearedEvent;
+import com.example.books.event.SequencedBookEventBatch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Запись ленты изменений из порций outbox. Выполняется в транзакции BookOutboxRelay под блокировкой доставки,
+// единственной среди экземпляров приложения: номера продолжают наибольший записанный и фиксируются
+// строго по возрастанию, поэтому клиент, читающий после токена, не пропустит изменение.
+// Лента сжимается: у каждой книги остается только последняя запись
+@Component
+public class BookChangeLog {
+
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private final BookChangeRepository changeRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public BookChangeLog(BookChangeRepository changeRepository, ApplicationEventPublisher eventPublisher) {
+        this.changeRepository = changeRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener
+    public void onEvents(SequencedBookEventBatch batch) {
+        // Последнее изменение каждой книги в порядке событий; CLEAR отменяет все предыдущие
+        Map<Long, BookChangeKind> latest = new LinkedHashMap<>();
+        boolean cleared = false;
+        for (BookEvent event : batch.events()) {
+            switch (event) {
+                case BookChangedEvent changed -> {
+                    latest.remove(changed.bookId());
+                    latest.put(changed.bookId(), changed.type() == BookChangeType.DELETED
+                            ? BookChangeKind.DELETE
+                            : BookChangeKind.UPSERT);
+                }
+                case BookStatusBulkChangedEvent bulk -> bulk.bookIds().forEach(id -> {
+                    latest.remove(id);
+                    latest.put(id, BookChangeKind.UPSERT);
+                });
+                case BooksClearedEvent clear -> {
+                    latest.clear();
+                    cleared = true;
+                }
+            }
+        }
+
+        if (!cleared && latest.isEmpty()) {
+            return;
+        }
+        long seq = changeRepository.findMaxSeq();
+        List<BookChange> changes = new ArrayList<>(latest.size() + 1);
+        if (cleared) {
+            changes.add(new BookChange(++seq, null, BookChangeKind.CLEAR));
+        }
+        for (Map.Entry<Long, BookChangeKind> entry : latest.entrySet()) {
+            changes.add(new BookChange(++seq, entry.getKey(), entry.getValue()));
+        }
+        changeRepository.saveAllAndFlush(changes);
+
+        long firstSeq = changes.get(0).getSeq();
+        if (cleared) {
+            changeRepository.deleteBefore(firstSeq);
+        } else {
+            List<Long> bookIds = new ArrayList<>(latest.keySet());
+            for (int from = 0; from < bookIds.size(); from += DELETE_CHUNK_SIZE) {
+                changeRepository.deleteSuperseded(
+                        bookIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, bookIds.size())), firstSeq);
+            }
+        }
+        eventPublisher.publishEvent(new BookChangesAppendedEvent(changes.get(changes.size() - 1).getSeq()));
+    }
+}
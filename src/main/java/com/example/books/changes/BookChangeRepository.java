@@ -0,0 +1,32 @@
+package com.example.books.changes;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BookChangeRepository extends JpaRepository<BookChange, Long> {
+
+    // Последний выданный номер (запись с наибольшим номером сжатие не удаляет)
+    @Query("SELECT COALESCE(MAX(c.seq), 0) FROM BookChange c")
+    long findMaxSeq();
+
+    // Изменения после токена в порядке номеров
+    List<BookChange> findBySeqGreaterThanOrderBySeqAsc(Long since, Pageable pageable);
+
+    // Удаление записей, замененных более новыми изменениями тех же книг
+    @Modifying
+    @Query("DELETE FROM BookChange c WHERE c.bookId IN :bookIds AND c.seq < :beforeSeq")
+    int deleteSuperseded(@Param("bookIds") Collection<Long> bookIds, @Param("beforeSeq") Long beforeSeq);
+
+    // Удаление всей ленты до указанного номера (после CLEAR прежние записи не нужны)
+    @Modifying
+    @Query("DELETE FROM BookChange c WHERE c.seq < :beforeSeq")
+    int deleteBefore(@Param("beforeSeq") Long beforeSeq);
+}
@@ -0,0 +1,5 @@
+package com.example.books.changes;
+
+// В ленту добавлены изменения до номера lastSeq включительно
+public record BookChangesAppendedEvent(long lastSeq) {
+}
@@ -0,0 +1,54 @@
+package com.example.books.concurrency;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.LongAdder;
+
+// Ограничение очереди за соединениями Hikari: виртуальных потоков может быть сколько угодно,
+// а соединений в пуле - нет. Ожидание свободного соединения ограничено connection-timeout пула,
+// а при длинной очереди соединение сразу не выдается. Запросы, которым БД не нужна, не ограничиваются
+public class ConnectionAdmissionDataSource extends DelegatingDataSource {
+
+    private final HikariDataSource hikariDataSource;
+
+    private final int maxQueued;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public ConnectionAdmissionDataSource(HikariDataSource hikariDataSource, int maxQueued) {
+        super(hikariDataSource);
+        this.hikariDataSource = hikariDataSource;
+        this.maxQueued = maxQueued;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        checkQueue();
+        return super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        checkQueue();
+        return super.getConnection(username, password);
+    }
+
+    private void checkQueue() throws SQLTransientConnectionException {
+        // Пул создается при первом запросе соединения, до этого очереди нет
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        if (pool != null && pool.getThreadsAwaitingConnection() >= maxQueued) {
+            rejected.increment();
+            throw new SQLTransientConnectionException(
+                    "Очередь за соединениями переполнена: ожидают " + pool.getThreadsAwaitingConnection());
+        }
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.books.concurrency;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+// Режим виртуальных потоков: включается свойством spring.threads.virtual.enabled,
+// при этом Tomcat и @Transactional-вызовы сервиса выполняются в виртуальных потоках
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${books.virtual-threads.pinning-threshold:20ms}") Duration threshold,
+            MeterRegistry meterRegistry) {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(threshold);
+        FunctionCounter.builder("books.virtual-threads.pinned", monitor, VirtualThreadPinningMonitor::getPinnedCount)
+                .register(meterRegistry);
+        FunctionCounter.builder("books.virtual-threads.pinned.time", monitor, VirtualThreadPinningMonitor::getPinnedMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        return monitor;
+    }
+
+    // Пул Hikari оборачивается ограничением очереди за соединениями (books.virtual-threads.admission.max-queued)
+    @Bean
+    public static BeanPostProcessor connectionAdmissionPostProcessor(Environment environment) {
+        int maxQueued = environment.getProperty("books.virtual-threads.admission.max-queued", Integer.class, 1000);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikariDataSource) {
+                    return new ConnectionAdmissionDataSource(hikariDataSource, maxQueued);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionAdmissionMetrics(DataSource dataSource) {
+        return registry -> {
+            try {
+                if (dataSource.isWrapperFor(ConnectionAdmissionDataSource.class)) {
+                    FunctionCounter.builder("books.admission.rejected",
+                                    dataSource.unwrap(ConnectionAdmissionDataSource.class),
+                                    ConnectionAdmissionDataSource::getRejectedCount)
+                            .register(registry);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+}
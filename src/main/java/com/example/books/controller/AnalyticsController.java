@@ -0,0 +1,54 @@
+package com.example.books.controller;
+
+import com.example.books.model.BookStatus;
+import com.example.books.service.BookAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+    
+    private final BookAnalyticsService analyticsService;
+    
+    @Autowired
+    public AnalyticsController(BookAnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+    
+    // Количество книг по статусу, годам и страницам
+    @GetMapping("/count")
+    public ResponseEntity<Map<String, Long>> countBooks(@RequestParam(required = false) BookStatus status,
+                                                        @RequestParam(required = false) Integer yearFrom,
+                                                        @RequestParam(required = false) Integer yearTo,
+                                                        @RequestParam(required = false) Integer minPages,
+                                                        @RequestParam(required = false) Integer maxPages) {
+        long count = analyticsService.countBooks(status, yearFrom, yearTo, minPages, maxPages);
+        return ResponseEntity.ok(Map.of("count", count));
+    }
+    
+    // Гистограмма книг по десятилетиям
+    @GetMapping("/decades")
+    public ResponseEntity<Map<Integer, Long>> getDecadeHistogram(@RequestParam(required = false) BookStatus status) {
+        return ResponseEntity.ok(analyticsService.getDecadeHistogram(status));
+    }
+    
+    // Перцентили количества страниц
+    @GetMapping("/pages")
+    public ResponseEntity<Map<String, Number>> getPagePercentiles(@RequestParam(required = false) BookStatus status,
+                                                                  @RequestParam(required = false) Integer yearFrom,
+                                                                  @RequestParam(required = false) Integer yearTo) {
+        return ResponseEntity.ok(analyticsService.getPagePercentiles(status, yearFrom, yearTo));
+    }
+    
+    // Количество книг по авторам
+    @GetMapping("/authors")
+    public ResponseEntity<Map<String, Long>> getAuthorCounts(@RequestParam(required = false) BookStatus status,
+                                                             @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(analyticsService.getAuthorCounts(status, limit));
+    }
+}
@@ -1,18 +1,41 @@
 package com.example.books.controller;
 
+import com.example.books.cache.BookCollectionVersion;
+import com.example.books.dto.BatchCreateResultDto;
+import com.example.books.dto.BookChangesDto;
 import com.example.books.dto.BookDto;
+import com.example.books.dto.BookScrollDto;
+import com.example.books.dto.BulkStatusChangeDto;
+import com.example.books.dto.BulkStatusChangeResultDto;
 import com.example.books.dto.CreateBookDto;
 import com.example.books.model.BookStatus;
+import com.example.books.search.BookSearchIndex;
+import com.example.books.serialization.BookFormat;
+import com.example.books.serialization.SerializedBookCache;
+import com.example.books.serialization.SerializedResponseCache;
+import com.example.books.service.BookChangeFeedService;
 import com.example.books.service.BookService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 
@@ -23,31 +46,124 @@ public class BookController {
     
     private final BookService bookService;
     
+    private final BookChangeFeedService changeFeedService;
+    
+    private final BookCollectionVersion collectionVersion;
+    
+    private final BookSearchIndex searchIndex;
+    
+    private final SerializedBookCache serializedBookCache;
+    
+    private final SerializedResponseCache responseCache;
+    
+    // Writer для NDJSON: одна книга на строку, без сброса буфера после каждой записи
+    private final ObjectWriter ndjsonWriter;
+    
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookChangeFeedService changeFeedService,
+                          BookCollectionVersion collectionVersion, BookSearchIndex searchIndex,
+                          SerializedBookCache serializedBookCache, SerializedResponseCache responseCache,
+                          ObjectMapper objectMapper) {
         this.bookService = bookService;
+        this.changeFeedService = changeFeedService;
+        this.collectionVersion = collectionVersion;
+        this.searchIndex = searchIndex;
+        this.serializedBookCache = serializedBookCache;
+        this.responseCache = responseCache;
+        this.ndjsonWriter = objectMapper.writerFor(BookDto.class)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
     
-    // Получить все книги
-    @GetMapping
-    public ResponseEntity<List<BookDto>> getAllBooks() {
+    // Получить все книги (JSON, CBOR или Smile по заголовку Accept)
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BookFormat.SMILE_VALUE})
+    public ResponseEntity<?> getAllBooks(@RequestParam(required = false) String fields,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                         WebRequest request) {
+        if (collectionNotModified(request)) {
+            return null;
+        }
+        if (fields != null) {
+            return ResponseEntity.ok(bookService.getAllBooks(fields));
+        }
         List<BookDto> books = bookService.getAllBooks();
-        return ResponseEntity.ok(books);
+        return serializedList(books, accept);
+    }
+    
+    // Потоковая выгрузка всех книг (NDJSON), память не зависит от размера таблицы
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllBooks() {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = ndjsonWriter.writeValues(outputStream)) {
+                bookService.streamAllBooks(book -> {
+                    try {
+                        writer.write(book);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
     
     // Получить все книги с пагинацией
     @GetMapping("/paginated")
-    public ResponseEntity<Page<BookDto>> getAllBooksPaginated(
-            @PageableDefault(size = 10) Pageable pageable) {
+    public ResponseEntity<Page<?>> getAllBooksPaginated(
+            @PageableDefault(size = 10) Pageable pageable,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        if (collectionNotModified(request)) {
+            return null;
+        }
+        if (fields != null) {
+            return ResponseEntity.ok(bookService.getAllBooks(pageable, fields));
+        }
         Page<BookDto> books = bookService.getAllBooks(pageable);
         return ResponseEntity.ok(books);
     }
     
-    // Получить книгу по ID
-    @GetMapping("/{id}")
-    public ResponseEntity<BookDto> getBookById(@PathVariable Long id) {
+    // Получить книги порциями по курсору (keyset-пагинация без подсчета общего количества)
+    @GetMapping("/scroll")
+    public ResponseEntity<BookScrollDto> scrollBooks(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) BookStatus status,
+            @RequestParam(required = false) String author,
+            WebRequest request) {
+        if (collectionNotModified(request)) {
+            return null;
+        }
+        BookScrollDto books = bookService.scrollBooks(after, size, status, author);
+        return ResponseEntity.ok(books);
+    }
+    
+    // Лента изменений после токена since (0 - с начала): UPSERT с текущим состоянием книги, DELETE, CLEAR.
+    // Если изменений нет, ответ ждет до wait секунд
+    @GetMapping("/changes")
+    public DeferredResult<BookChangesDto> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(defaultValue = "0") int wait) {
+        return changeFeedService.awaitChanges(since, limit, wait);
+    }
+    
+    // Получить книгу по ID (ETag "id.version-format", поддерживается If-None-Match)
+    @GetMapping(value = "/{id}",
+                produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BookFormat.SMILE_VALUE})
+    public ResponseEntity<byte[]> getBookById(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                              WebRequest request) {
+        // 304 по версии из кэша или одной колонки БД, без загрузки и сериализации книги
+        BookFormat format = BookFormat.negotiate(accept);
+        if (request.checkNotModified(BookETags.of(id, bookService.getBookVersion(id), format))) {
+            return null;
+        }
         BookDto book = bookService.getBookById(id);
-        return ResponseEntity.ok(book);
+        return bytesResponse(serializedBookCache.get(book, format), format);
     }
     
     // Создать новую книгу
@@ -57,12 +173,32 @@ public class BookController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdBook);
     }
     
+    // Пакетное создание книг с результатом по каждой книге
+    @PostMapping("/batch")
+    public ResponseEntity<BatchCreateResultDto> createBooks(@RequestBody List<CreateBookDto> createBookDtos) {
+        BatchCreateResultDto result = bookService.createBooks(createBookDtos);
+        return ResponseEntity.ok(result);
+    }
+    
     // Обновить книгу
     @PutMapping("/{id}")
     public ResponseEntity<BookDto> updateBook(@PathVariable Long id, 
                                               @Valid @RequestBody CreateBookDto updateBookDto) {
         BookDto updatedBook = bookService.updateBook(id, updateBookDto);
-        return ResponseEntity.ok(updatedBook);
+        return ResponseEntity.ok()
+                .eTag(BookETags.of(updatedBook.getId(), updatedBook.getVersion(), BookFormat.JSON))
+                .body(updatedBook);
+    }
+    
+    // Частичное обновление книги (JSON Merge Patch), If-Match задает ожидаемую версию
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BookDto> patchBook(@PathVariable Long id,
+                                             @RequestBody Map<String, Object> patch,
+                                             @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        BookDto patchedBook = bookService.patchBook(id, patch, BookETags.parseVersion(id, ifMatch));
+        return ResponseEntity.ok()
+                .eTag(BookETags.of(patchedBook.getId(), patchedBook.getVersion(), BookFormat.JSON))
+                .body(patchedBook);
     }
     
     // Удалить книгу
@@ -74,37 +210,82 @@ public class BookController {
     
     // Поиск книг по названию
     @GetMapping("/search/title")
-    public ResponseEntity<List<BookDto>> searchBooksByTitle(@RequestParam String title) {
+    public ResponseEntity<List<?>> searchBooksByTitle(@RequestParam String title,
+                                                      @RequestParam(required = false) String fields,
+                                                      WebRequest request) {
+        if (searchNotModified(request)) {
+            return null;
+        }
+        if (fields != null) {
+            return ResponseEntity.ok(bookService.searchBooksByTitle(title, fields));
+        }
         List<BookDto> books = bookService.searchBooksByTitle(title);
         return ResponseEntity.ok(books);
     }
     
     // Поиск книг по автору
     @GetMapping("/search/author")
-    public ResponseEntity<List<BookDto>> searchBooksByAuthor(@RequestParam String author) {
+    public ResponseEntity<List<?>> searchBooksByAuthor(@RequestParam String author,
+                                                       @RequestParam(required = false) String fields,
+                                                       WebRequest request) {
+        if (searchNotModified(request)) {
+            return null;
+        }
+        if (fields != null) {
+            return ResponseEntity.ok(bookService.searchBooksByAuthor(author, fields));
+        }
         List<BookDto> books = bookService.searchBooksByAuthor(author);
         return ResponseEntity.ok(books);
     }
     
-    // Поиск книг по статусу
-    @GetMapping("/status/{status}")
-    public ResponseEntity<List<BookDto>> getBooksByStatus(@PathVariable BookStatus status) {
-        List<BookDto> books = bookService.getBooksByStatus(status);
-        return ResponseEntity.ok(books);
+    // Поиск книг по статусу (готовое тело ответа из кэша до следующей записи)
+    @GetMapping(value = "/status/{status}",
+                produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BookFormat.SMILE_VALUE})
+    public ResponseEntity<byte[]> getBooksByStatus(@PathVariable BookStatus status,
+                                                   @RequestParam(required = false) String fields,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                   WebRequest request) {
+        if (collectionNotModified(request)) {
+            return null;
+        }
+        BookFormat format = BookFormat.negotiate(accept);
+        byte[] body = responseCache.get("status/" + status + "?fields=" + fields, format, () -> fields != null
+                ? responseCache.serialize(bookService.getBooksByStatus(status, fields), format)
+                : serializedBookCache.getList(bookService.getBooksByStatus(status), format));
+        return bytesResponse(body, format);
     }
     
-    // Получить доступные книги
-    @GetMapping("/available")
-    public ResponseEntity<List<BookDto>> getAvailableBooks() {
-        List<BookDto> books = bookService.getAvailableBooks();
-        return ResponseEntity.ok(books);
+    // Получить доступные книги (готовое тело ответа из кэша до следующей записи)
+    @GetMapping(value = "/available",
+                produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BookFormat.SMILE_VALUE})
+    public ResponseEntity<byte[]> getAvailableBooks(@RequestParam(required = false) String fields,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                    WebRequest request) {
+        if (collectionNotModified(request)) {
+            return null;
+        }
+        BookFormat format = BookFormat.negotiate(accept);
+        byte[] body = responseCache.get("available?fields=" + fields, format, () -> fields != null
+                ? responseCache.serialize(bookService.getAvailableBooks(fields), format)
+                : serializedBookCache.getList(bookService.getAvailableBooks(), format));
+        return bytesResponse(body, format);
     }
     
-    // Поиск по ключевым словам
-    @GetMapping("/search")
-    public ResponseEntity<List<BookDto>> searchBooksByKeyword(@RequestParam String keyword) {
+    // Поиск по ключевым словам (JSON, CBOR или Smile по заголовку Accept)
+    @GetMapping(value = "/search",
+                produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BookFormat.SMILE_VALUE})
+    public ResponseEntity<?> searchBooksByKeyword(@RequestParam String keyword,
+                                                  @RequestParam(required = false) String fields,
+                                                  @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                  WebRequest request) {
+        if (searchNotModified(request)) {
+            return null;
+        }
+        if (fields != null) {
+            return ResponseEntity.ok(bookService.searchBooksByKeyword(keyword, fields));
+        }
         List<BookDto> books = bookService.searchBooksByKeyword(keyword);
-        return ResponseEntity.ok(books);
+        return serializedList(books, accept);
     }
     
     // Изменить статус книги
@@ -115,6 +296,23 @@ public class BookController {
         return ResponseEntity.ok(updatedBook);
     }
     
+    // Переход статуса с проверкой текущего (409, если статус уже изменен другим запросом)
+    @PostMapping("/{id}/transitions")
+    public ResponseEntity<BookDto> transitionBookStatus(@PathVariable Long id,
+                                                        @RequestParam BookStatus from,
+                                                        @RequestParam BookStatus to) {
+        BookDto updatedBook = bookService.transitionBookStatus(id, from, to);
+        return ResponseEntity.ok(updatedBook);
+    }
+    
+    // Массовая смена статуса по списку ID или фильтру (статус, автор, диапазон лет)
+    @PostMapping("/status/bulk")
+    public ResponseEntity<BulkStatusChangeResultDto> changeBooksStatus(@Valid @RequestBody BulkStatusChangeDto request,
+                                                                       @RequestParam(defaultValue = "1000") int chunkSize) {
+        BulkStatusChangeResultDto result = bookService.changeBooksStatus(request, chunkSize);
+        return ResponseEntity.ok(result);
+    }
+    
     // Получить статистику
     @GetMapping("/statistics")
     public ResponseEntity<Map<String, Long>> getBookStatistics() {
@@ -122,9 +320,45 @@ public class BookController {
         return ResponseEntity.ok(statistics);
     }
     
-    // Получить все возможные статусы книг
-    @GetMapping("/statuses")
-    public ResponseEntity<BookStatus[]> getAllStatuses() {
-        return ResponseEntity.ok(BookStatus.values());
+    // Получить статистику кэша книг (попадания, промахи, вытеснения)
+    @GetMapping("/cache/statistics")
+    public ResponseEntity<Map<String, Long>> getCacheStatistics() {
+        return ResponseEntity.ok(bookService.getCacheStatistics());
+    }
+    
+    // Получить все возможные статусы книг (сериализованы при старте)
+    @GetMapping(value = "/statuses",
+                produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BookFormat.SMILE_VALUE})
+    public ResponseEntity<byte[]> getAllStatuses(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        BookFormat format = BookFormat.negotiate(accept);
+        return bytesResponse(responseCache.getStatuses(format), format);
+    }
+    
+    // Список книг из готовых байтов элементов в согласованном формате
+    private ResponseEntity<byte[]> serializedList(List<BookDto> books, String accept) {
+        BookFormat format = BookFormat.negotiate(accept);
+        return bytesResponse(serializedBookCache.getList(books, format), format);
+    }
+    
+    private static ResponseEntity<byte[]> bytesResponse(byte[] body, BookFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+    
+    // Условный GET для списков: 304, если книги не менялись с ответа, который есть у клиента.
+    // Заголовок ETag выставляется здесь же, он свой для каждого формата из Accept
+    private boolean collectionNotModified(WebRequest request) {
+        BookFormat format = BookFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        return request.checkNotModified(BookETags.ofCollection(collectionVersion.getTag(), format));
+    }
+    
+    // Условный GET для поиска: набор найденных книг задает индекс, который применяет записи асинхронно
+    // после фиксации. ETag меняется и при записи, и когда индекс ее применил
+    private boolean searchNotModified(WebRequest request) {
+        BookFormat format = BookFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        String tag = collectionVersion.getTag() + "-i" + searchIndex.getVersion();
+        return request.checkNotModified(BookETags.ofCollection(tag, format));
     }
 }
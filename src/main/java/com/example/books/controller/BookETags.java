@@ -0,0 +1,59 @@
+package com.example.books.controller;
+
+import com.example.books.exception.InvalidRequestParameterException;
+import com.example.books.exception.PreconditionFailedException;
+import com.example.books.serialization.BookFormat;
+
+import java.util.Locale;
+
+// Формирование и разбор ETag. Метка книги "id.version-format" сильная: If-Match для PATCH требует строгого
+// сравнения, а тело одной книги меньше порога сжатия, так что запрет Tomcat сжимать ответы с сильным ETag
+// ничего не стоит. Метка списка W/"tag-format" слабая, потому что сжатое gzip и несжатое тело эквивалентны.
+// Формат входит в метку, чтобы JSON, CBOR и Smile не делили один ETag
+final class BookETags {
+    
+    private BookETags() {
+    }
+    
+    static String of(Long id, Long version, BookFormat format) {
+        return "\"" + id + "." + (version != null ? version : 0) + suffix(format) + "\"";
+    }
+    
+    // ETag списка: версия коллекции и формат представления
+    static String ofCollection(String collectionTag, BookFormat format) {
+        return "W/\"" + collectionTag + suffix(format) + "\"";
+    }
+    
+    private static String suffix(BookFormat format) {
+        return "-" + format.name().toLowerCase(Locale.ROOT);
+    }
+    
+    // Версия книги id из заголовка If-Match; null, если заголовок отсутствует или равен "*".
+    // Сравнение строгое (RFC 9110): слабая метка или метка другой книги не совпадает с текущей - 412
+    static Long parseVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new PreconditionFailedException("If-Match требует сильную метку книги, получена слабая: " + ifMatch);
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new InvalidRequestParameterException("Некорректный заголовок If-Match: " + ifMatch);
+        }
+        tag = tag.substring(1, tag.length() - 1);
+        int dash = tag.lastIndexOf('-');
+        if (dash >= 0) {
+            tag = tag.substring(0, dash);
+        }
+        int dot = tag.indexOf('.');
+        if (dot < 0 || !tag.substring(0, dot).equals(String.valueOf(id))) {
+            throw new PreconditionFailedException("Метка If-Match относится не к книге " + id + ": " + ifMatch);
+        }
+        try {
+            return Long.parseLong(tag.substring(dot + 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestParameterException("Некорректный заголовок If-Match: " + ifMatch, e);
+        }
+    }
+}
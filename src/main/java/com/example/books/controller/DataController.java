@@ -1,5 +1,6 @@
 package com.example.books.controller;
 
+import com.example.books.dto.BatchCreateResultDto;
 import com.example.books.dto.CreateBookDto;
 import com.example.books.service.BookService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,7 +33,7 @@ public class DataController {
                     "Роман-эпопея Льва Николаевича Толстого, описывающий русское общество в эпоху войн против Наполеона в 1805—1812 годах.",
                     1869,
                     1274,
-                    "978-5-17-102143-9"
+                    "978-5-17-102143-6"
                 ),
                 new CreateBookDto(
                     "Преступление и наказание",
@@ -40,7 +41,7 @@ public class DataController {
                     "Социально-психологический и социально-философский роман Фёдора Михайловича Достоевского о преступлении и наказании.",
                     1866,
                     671,
-                    "978-5-17-102144-6"
+                    "978-5-17-102144-3"
                 ),
                 new CreateBookDto(
                     "Мастер и Маргарита",
@@ -48,7 +49,7 @@ public class DataController {
                     "Роман Михаила Афанасьевича Булгакова, работа над которым началась в конце 1920-х годов и продолжалась вплоть до смерти писателя.",
                     1967,
                     384,
-                    "978-5-17-102145-3"
+                    "978-5-17-102145-0"
                 ),
                 new CreateBookDto(
                     "Евгений Онегин",
@@ -56,7 +57,7 @@ public class DataController {
                     "Роман в стихах Александра Сергеевича Пушкина, написанный в 1823—1831 годах, одно из самых значительных произведений русской словесности.",
                     1833,
                     352,
-                    "978-5-17-102146-0"
+                    "978-5-17-102146-7"
                 ),
                 new CreateBookDto(
                     "Анна Каренина",
@@ -64,7 +65,7 @@ public class DataController {
                     "Роман Льва Николаевича Толстого о трагической любви замужней дамы Анны Карениной и офицера Вронского на фоне счастливой семейной жизни дворян Константина Левина и Кити Щербацкой.",
                     1877,
                     864,
-                    "978-5-17-102147-7"
+                    "978-5-17-102147-4"
                 ),
                 new CreateBookDto(
                     "Отцы и дети",
@@ -72,7 +73,7 @@ public class DataController {
                     "Роман Ивана Сергеевича Тургенева, написанный в 1860—1861 годах и опубликованный в 1862 году.",
                     1862,
                     224,
-                    "978-5-17-102148-4"
+                    "978-5-17-102148-1"
                 ),
                 new CreateBookDto(
                     "Мёртвые души",
@@ -80,7 +81,7 @@ public class DataController {
                     "Поэма Николая Васильевича Гоголя, жанр которой сам автор обозначил как «поэма».",
                     1842,
                     352,
-                    "978-5-17-102149-1"
+                    "978-5-17-102149-8"
                 ),
                 new CreateBookDto(
                     "Герой нашего времени",
@@ -88,15 +89,17 @@ public class DataController {
                     "Роман Михаила Юрьевича Лермонтова, написанный в 1838—1840 годах.",
                     1840,
                     224,
-                    "978-5-17-102150-7"
+                    "978-5-17-102150-4"
                 )
             );
             
-            for (CreateBookDto bookDto : testBooks) {
-                bookService.createBook(bookDto);
+            BatchCreateResultDto result = bookService.createBooks(testBooks);
+            if (result.getFailed() > 0) {
+                return ResponseEntity.badRequest().body("Ошибка при инициализации данных: добавлено "
+                        + result.getCreated() + " из " + result.getTotal() + " книг.");
             }
             
-            return ResponseEntity.ok("Тестовые данные успешно инициализированы. Добавлено " + testBooks.size() + " книг.");
+            return ResponseEntity.ok("Тестовые данные успешно инициализированы. Добавлено " + result.getCreated() + " книг.");
             
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Ошибка при инициализации данных: " + e.getMessage());
@@ -105,18 +108,14 @@ public class DataController {
     
     // Очистить все данные
     @DeleteMapping("/clear")
-    public ResponseEntity<String> clearAllData() {
+    public ResponseEntity<String> clearAllData(@RequestParam(required = false) Integer chunkSize) {
         try {
-            // Получаем все книги и удаляем их
-            bookService.getAllBooks().forEach(book -> {
-                try {
-                    bookService.deleteBook(book.getId());
-                } catch (Exception e) {
-                    // Игнорируем ошибки при удалении
-                }
-            });
+            // Один запрос DELETE, либо порции по chunkSize ID за запрос
+            long deleted = chunkSize == null
+                    ? bookService.deleteAllBooks()
+                    : bookService.deleteAllBooks(chunkSize);
             
-            return ResponseEntity.ok("Все данные успешно удалены.");
+            return ResponseEntity.ok("Все данные успешно удалены. Удалено " + deleted + " книг.");
             
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Ошибка при удалении данных: " + e.getMessage());
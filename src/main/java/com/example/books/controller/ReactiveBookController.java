@@ -0,0 +1,96 @@
+package com.example.books.controller;
+
+import com.example.books.dto.BookDto;
+import com.example.books.exception.InvalidRequestParameterException;
+import com.example.books.model.BookStatus;
+import com.example.books.service.ReactiveBookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Неблокирующее чтение книг (R2DBC): поток запроса освобождается на время обращения к БД.
+// Списки отдаются JSON-массивом или построчно в NDJSON (Accept: application/x-ndjson) с учетом backpressure
+@RestController
+@RequestMapping("/api/reactive/books")
+@CrossOrigin(origins = "*")
+public class ReactiveBookController {
+    
+    private final ReactiveBookService bookService;
+    
+    @Autowired
+    public ReactiveBookController(ReactiveBookService bookService) {
+        this.bookService = bookService;
+    }
+    
+    // Получить все книги
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BookDto> getAllBooks() {
+        return bookService.getAllBooks();
+    }
+    
+    // Получить книгу по ID
+    @GetMapping("/{id}")
+    public Mono<BookDto> getBookById(@PathVariable Long id) {
+        return bookService.getBookById(id);
+    }
+    
+    // Получить книгу по ISBN
+    @GetMapping("/isbn/{isbn}")
+    public Mono<BookDto> getBookByIsbn(@PathVariable String isbn) {
+        return bookService.getBookByIsbn(isbn);
+    }
+    
+    // Поиск книг по названию
+    @GetMapping(value = "/search/title", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BookDto> searchBooksByTitle(@RequestParam String title) {
+        return bookService.searchBooksByTitle(title);
+    }
+    
+    // Поиск книг по автору
+    @GetMapping(value = "/search/author", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BookDto> searchBooksByAuthor(@RequestParam String author) {
+        return bookService.searchBooksByAuthor(author);
+    }
+    
+    // Поиск книг по ключевым словам
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BookDto> searchBooksByKeyword(@RequestParam String keyword) {
+        return bookService.searchBooksByKeyword(keyword);
+    }
+    
+    // Получить книги по статусу
+    @GetMapping(value = "/status/{status}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BookDto> getBooksByStatus(@PathVariable BookStatus status) {
+        return bookService.getBooksByStatus(status);
+    }
+    
+    // Получить доступные книги
+    @GetMapping(value = "/available", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BookDto> getAvailableBooks() {
+        return bookService.getBooksByStatus(BookStatus.AVAILABLE);
+    }
+    
+    // Получить книги по году издания
+    @GetMapping(value = "/year/{year}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BookDto> getBooksByYear(@PathVariable Integer year) {
+        return bookService.getBooksByYear(year);
+    }
+    
+    // Получить книги по диапазону годов
+    @GetMapping(value = "/year", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BookDto> getBooksByYearRange(@RequestParam Integer from, @RequestParam Integer to) {
+        return bookService.getBooksByYearRange(from, to);
+    }
+    
+    // Получить книги по количеству страниц (не меньше min или не больше max)
+    @GetMapping(value = "/pages", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BookDto> getBooksByPages(@RequestParam(required = false) Integer min,
+                                         @RequestParam(required = false) Integer max) {
+        if ((min == null) == (max == null)) {
+            throw new InvalidRequestParameterException("Укажите один из параметров: min или max");
+        }
+        return min != null ? bookService.getBooksByMinPages(min) : bookService.getBooksByMaxPages(max);
+    }
+}
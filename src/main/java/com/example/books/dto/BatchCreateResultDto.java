@@ -0,0 +1,59 @@
+package com.example.books.dto;
+
+import java.util.List;
+
+public class BatchCreateResultDto {
+    
+    private int total;
+    
+    private int created;
+    
+    private int failed;
+    
+    private List<BatchItemResultDto> items;
+    
+    // Constructors
+    public BatchCreateResultDto() {}
+    
+    public BatchCreateResultDto(List<BatchItemResultDto> items) {
+        this.items = items;
+        this.total = items.size();
+        this.created = (int) items.stream()
+                .filter(item -> item.getOutcome() == BatchItemResultDto.Outcome.CREATED)
+                .count();
+        this.failed = total - created;
+    }
+    
+    // Getters and Setters
+    public int getTotal() {
+        return total;
+    }
+    
+    public void setTotal(int total) {
+        this.total = total;
+    }
+    
+    public int getCreated() {
+        return created;
+    }
+    
+    public void setCreated(int created) {
+        this.created = created;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+    
+    public List<BatchItemResultDto> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<BatchItemResultDto> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.books.dto;
+
+public class BatchItemResultDto {
+    
+    public enum Outcome {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+    
+    // Позиция книги во входном списке
+    private int index;
+    
+    private Outcome outcome;
+    
+    private Long id;
+    
+    private String isbn;
+    
+    private String message;
+    
+    // Constructors
+    public BatchItemResultDto() {}
+    
+    public BatchItemResultDto(int index, Outcome outcome, Long id, String isbn, String message) {
+        this.index = index;
+        this.outcome = outcome;
+        this.id = id;
+        this.isbn = isbn;
+        this.message = message;
+    }
+    
+    public static BatchItemResultDto created(int index, Long id, String isbn) {
+        return new BatchItemResultDto(index, Outcome.CREATED, id, isbn, null);
+    }
+    
+    public static BatchItemResultDto rejected(int index, Outcome outcome, String isbn, String message) {
+        return new BatchItemResultDto(index, outcome, null, isbn, message);
+    }
+    
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    public Outcome getOutcome() {
+        return outcome;
+    }
+    
+    public void setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getIsbn() {
+        return isbn;
+    }
+    
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
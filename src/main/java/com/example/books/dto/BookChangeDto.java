@@ -0,0 +1,58 @@
+package com.example.books.dto;
+
+import com.example.books.changes.BookChangeKind;
+
+public class BookChangeDto {
+    
+    private long seq;
+    
+    private BookChangeKind type;
+    
+    private Long bookId;
+    
+    // Текущее состояние книги (только для UPSERT)
+    private BookDto book;
+    
+    // Constructors
+    public BookChangeDto() {}
+    
+    public BookChangeDto(long seq, BookChangeKind type, Long bookId, BookDto book) {
+        this.seq = seq;
+        this.type = type;
+        this.bookId = bookId;
+        this.book = book;
+    }
+    
+    // Getters and Setters
+    public long getSeq() {
+        return seq;
+    }
+    
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+    
+    public BookChangeKind getType() {
+        return type;
+    }
+    
+    public void setType(BookChangeKind type) {
+        this.type = type;
+    }
+    
+    public Long getBookId() {
+        return bookId;
+    }
+    
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+    
+    public BookDto getBook() {
+        return book;
+    }
+    
+    public void setBook(BookDto book) {
+        this.book = book;
+    }
+}
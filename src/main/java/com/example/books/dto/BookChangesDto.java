@@ -0,0 +1,48 @@
+package com.example.books.dto;
+
+import java.util.List;
+
+public class BookChangesDto {
+    
+    private List<BookChangeDto> changes;
+    
+    // Токен для следующего запроса (?since=)
+    private long nextSince;
+    
+    // true - есть еще изменения, следующую порцию можно запросить сразу
+    private boolean hasMore;
+    
+    // Constructors
+    public BookChangesDto() {}
+    
+    public BookChangesDto(List<BookChangeDto> changes, long nextSince, boolean hasMore) {
+        this.changes = changes;
+        this.nextSince = nextSince;
+        this.hasMore = hasMore;
+    }
+    
+    // Getters and Setters
+    public List<BookChangeDto> getChanges() {
+        return changes;
+    }
+    
+    public void setChanges(List<BookChangeDto> changes) {
+        this.changes = changes;
+    }
+    
+    public long getNextSince() {
+        return nextSince;
+    }
+    
+    public void setNextSince(long nextSince) {
+        this.nextSince = nextSince;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
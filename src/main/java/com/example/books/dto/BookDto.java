@@ -1,6 +1,7 @@
 package com.example.books.dto;
 
 import com.example.books.model.BookStatus;
+import com.example.books.validation.Isbn;
 import jakarta.validation.constraints.*;
 import java.time.LocalDate;
 
@@ -28,8 +29,7 @@ public class BookDto {
     @Min(value = 1, message = "Количество страниц должно быть больше 0")
     private Integer pages;
     
-    @Pattern(regexp = "^(?:ISBN(?:-1[03])?:? )?(?=[0-9X]{10}$|(?=(?:[0-9]+[- ]){3})[- 0-9X]{13}$|97[89][0-9]{10}$|(?=(?:[0-9]+[- ]){4})[- 0-9]{17}$)(?:97[89][- ]?)?[0-9]{1,5}[- ]?[0-9]+[- ]?[0-9]+[- ]?[0-9X]$", 
-             message = "ISBN должен быть в правильном формате")
+    @Isbn
     private String isbn;
     
     private BookStatus status;
@@ -38,6 +38,8 @@ public class BookDto {
     
     private LocalDate updatedAt;
     
+    private Long version;
+    
     // Constructors
     public BookDto() {}
     
@@ -133,4 +135,12 @@ public class BookDto {
     public void setUpdatedAt(LocalDate updatedAt) {
         this.updatedAt = updatedAt;
     }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
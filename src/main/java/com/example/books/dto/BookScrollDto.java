@@ -0,0 +1,58 @@
+package com.example.books.dto;
+
+import java.util.List;
+
+public class BookScrollDto {
+    
+    private List<BookDto> content;
+    
+    private int size;
+    
+    private boolean hasNext;
+    
+    // Непрозрачный курсор для запроса следующей порции (null, если порций больше нет)
+    private String nextCursor;
+    
+    // Constructors
+    public BookScrollDto() {}
+    
+    public BookScrollDto(List<BookDto> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters and Setters
+    public List<BookDto> getContent() {
+        return content;
+    }
+    
+    public void setContent(List<BookDto> content) {
+        this.content = content;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public void setSize(int size) {
+        this.size = size;
+    }
+    
+    public boolean isHasNext() {
+        return hasNext;
+    }
+    
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
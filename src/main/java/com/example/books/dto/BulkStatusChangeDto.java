@@ -0,0 +1,75 @@
+package com.example.books.dto;
+
+import com.example.books.model.BookStatus;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public class BulkStatusChangeDto {
+    
+    @NotNull(message = "Новый статус обязателен")
+    private BookStatus targetStatus;
+    
+    // Явный список ID; остальные условия дополнительно сужают выборку
+    private List<Long> ids;
+    
+    private BookStatus status;
+    
+    private String author;
+    
+    private Integer yearFrom;
+    
+    private Integer yearTo;
+    
+    // Constructors
+    public BulkStatusChangeDto() {}
+    
+    // Getters and Setters
+    public BookStatus getTargetStatus() {
+        return targetStatus;
+    }
+    
+    public void setTargetStatus(BookStatus targetStatus) {
+        this.targetStatus = targetStatus;
+    }
+    
+    public List<Long> getIds() {
+        return ids;
+    }
+    
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+    
+    public BookStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(BookStatus status) {
+        this.status = status;
+    }
+    
+    public String getAuthor() {
+        return author;
+    }
+    
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+    
+    public Integer getYearFrom() {
+        return yearFrom;
+    }
+    
+    public void setYearFrom(Integer yearFrom) {
+        this.yearFrom = yearFrom;
+    }
+    
+    public Integer getYearTo() {
+        return yearTo;
+    }
+    
+    public void setYearTo(Integer yearTo) {
+        this.yearTo = yearTo;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.books.dto;
+
+import com.example.books.model.BookStatus;
+
+import java.util.Map;
+
+public class BulkStatusChangeResultDto {
+    
+    private BookStatus targetStatus;
+    
+    // Книг, подошедших под условия
+    private long matched;
+    
+    // Книг, статус которых изменен
+    private long changed;
+    
+    // Книг, уже находившихся в целевом статусе
+    private long unchanged;
+    
+    // Книг, статус которых успел измениться параллельным запросом (пропущены)
+    private long conflicts;
+    
+    // Число измененных книг по прежнему статусу
+    private Map<BookStatus, Long> changedFrom;
+    
+    // Число книг по итоговому статусу
+    private Map<BookStatus, Long> statusCounts;
+    
+    // Constructors
+    public BulkStatusChangeResultDto() {}
+    
+    public BulkStatusChangeResultDto(BookStatus targetStatus, long matched, long unchanged, long conflicts,
+                                     Map<BookStatus, Long> changedFrom) {
+        this.targetStatus = targetStatus;
+        this.matched = matched;
+        this.unchanged = unchanged;
+        this.conflicts = conflicts;
+        this.changedFrom = changedFrom;
+        this.changed = changedFrom.values().stream().mapToLong(Long::longValue).sum();
+        this.statusCounts = Map.of(targetStatus, changed + unchanged);
+    }
+    
+    // Getters and Setters
+    public BookStatus getTargetStatus() {
+        return targetStatus;
+    }
+    
+    public void setTargetStatus(BookStatus targetStatus) {
+        this.targetStatus = targetStatus;
+    }
+    
+    public long getMatched() {
+        return matched;
+    }
+    
+    public void setMatched(long matched) {
+        this.matched = matched;
+    }
+    
+    public long getChanged() {
+        return changed;
+    }
+    
+    public void setChanged(long changed) {
+        this.changed = changed;
+    }
+    
+    public long getUnchanged() {
+        return unchanged;
+    }
+    
+    public void setUnchanged(long unchanged) {
+        this.unchanged = unchanged;
+    }
+    
+    public long getConflicts() {
+        return conflicts;
+    }
+    
+    public void setConflicts(long conflicts) {
+        this.conflicts = conflicts;
+    }
+    
+    public Map<BookStatus, Long> getChangedFrom() {
+        return changedFrom;
+    }
+    
+    public void setChangedFrom(Map<BookStatus, Long> changedFrom) {
+        this.changedFrom = changedFrom;
+    }
+    
+    public Map<BookStatus, Long> getStatusCounts() {
+        return statusCounts;
+    }
+    
+    public void setStatusCounts(Map<BookStatus, Long> statusCounts) {
+        this.statusCounts = statusCounts;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.books.dto;
 
 import jakarta.validation.constraints.*;
 import com.example.books.model.BookStatus;
+import com.example.books.validation.Isbn;
 
 public class CreateBookDto {
     
@@ -25,8 +26,7 @@ public class CreateBookDto {
     @Min(value = 1, message = "Количество страниц должно быть больше 0")
     private Integer pages;
     
-    @Pattern(regexp = "^(?:ISBN(?:-1[03])?:? )?(?=[0-9X]{10}$|(?=(?:[0-9]+[- ]){3})[- 0-9X]{13}$|97[89][0-9]{10}$|(?=(?:[0-9]+[- ]){4})[- 0-9]{17}$)(?:97[89][- ]?)?[0-9]{1,5}[- ]?[0-9]+[- ]?[0-9]+[- ]?[0-9X]$", 
-             message = "ISBN должен быть в правильном формате")
+    @Isbn
     private String isbn;
     
     private BookStatus status = BookStatus.AVAILABLE;
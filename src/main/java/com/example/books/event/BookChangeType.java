@@ -0,0 +1,7 @@
+package com.example.books.event;
+
+public enum BookChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
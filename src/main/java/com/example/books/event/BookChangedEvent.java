@@ -0,0 +1,32 @@
+package com.example.books.event;
+
+import com.example.books.dto.BookDto;
+import com.example.books.model.BookStatus;
+
+// Событие изменения одной книги: book — состояние после изменения (null для DELETED),
+// previousStatus — статус до изменения (null для CREATED),
+// previousIsbn — ISBN до изменения (null для CREATED или если он неизвестен)
+public record BookChangedEvent(BookChangeType type, Long bookId, BookDto book, BookStatus previousStatus,
+                               String previousIsbn) implements BookEvent {
+    
+    public static BookChangedEvent created(BookDto book) {
+        return new BookChangedEvent(BookChangeType.CREATED, book.getId(), book, null, null);
+    }
+    
+    // Изменение без смены ISBN
+    public static BookChangedEvent updated(BookDto book, BookStatus previousStatus) {
+        return new BookChangedEvent(BookChangeType.UPDATED, book.getId(), book, previousStatus, book.getIsbn());
+    }
+    
+    public static BookChangedEvent updated(BookDto book, BookStatus previousStatus, String previousIsbn) {
+        return new BookChangedEvent(BookChangeType.UPDATED, book.getId(), book, previousStatus, previousIsbn);
+    }
+    
+    public static BookChangedEvent deleted(Long bookId, BookStatus previousStatus) {
+        return new BookChangedEvent(BookChangeType.DELETED, bookId, null, previousStatus, null);
+    }
+    
+    public static BookChangedEvent deleted(Long bookId, BookStatus previousStatus, String previousIsbn) {
+        return new BookChangedEvent(BookChangeType.DELETED, bookId, null, previousStatus, previousIsbn);
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.books.event;
+
+// Событие изменения данных книг: публикуется сервисом и записывается в outbox (book_events)
+public sealed interface BookEvent permits BookChangedEvent, BookStatusBulkChangedEvent, BooksClearedEvent {
+}
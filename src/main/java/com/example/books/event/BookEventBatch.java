@@ -0,0 +1,8 @@
+package com.example.books.event;
+
+import java.util.List;
+
+// Порция событий из outbox в порядке фиксации; доставляется не менее одного раза,
+// поэтому обработчики должны быть идемпотентными
+public record BookEventBatch(List<BookEvent> events) {
+}
@@ -0,0 +1,12 @@
+package com.example.books.event;
+
+import com.example.books.model.BookStatus;
+
+import java.util.Collection;
+import java.util.Map;
+
+// Событие массовой смены статуса одной порции: число измененных книг по прежнему статусу и затронутые ID
+public record BookStatusBulkChangedEvent(BookStatus newStatus,
+                                         Map<BookStatus, Long> changedByPreviousStatus,
+                                         Collection<Long> bookIds) implements BookEvent {
+}
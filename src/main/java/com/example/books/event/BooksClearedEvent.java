@@ -0,0 +1,5 @@
+package com.example.books.event;
+
+// Событие удаления всех книг одним запросом
+public record BooksClearedEvent(long deletedCount) implements BookEvent {
+}
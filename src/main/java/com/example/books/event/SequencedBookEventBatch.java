@@ -0,0 +1,9 @@
+package com.example.books.event;
+
+import java.util.List;
+
+// Порция событий outbox, только что получившая номера доставки. Публикуется один раз на все экземпляры
+// приложения, в транзакции, держащей блокировку доставки: для общего состояния в базе (лента изменений).
+// Состояние в памяти каждого экземпляра обновляется по BookEventBatch
+public record SequencedBookEventBatch(List<BookEvent> events) {
+}
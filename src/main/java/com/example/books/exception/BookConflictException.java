@@ -0,0 +1,16 @@
+package com.example.books.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BookConflictException extends RuntimeException {
+    
+    public BookConflictException(String message) {
+        super(message);
+    }
+    
+    public BookConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.books.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Map;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BookValidationException extends RuntimeException {
+    
+    private final Map<String, String> errors;
+    
+    public BookValidationException(Map<String, String> errors) {
+        super("Ошибка валидации данных");
+        this.errors = errors;
+    }
+    
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.books.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IllegalStatusTransitionException extends RuntimeException {
+    
+    public IllegalStatusTransitionException(String message) {
+        super(message);
+    }
+    
+    public IllegalStatusTransitionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.books.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidRequestParameterException extends RuntimeException {
+    
+    public InvalidRequestParameterException(String message) {
+        super(message);
+    }
+    
+    public InvalidRequestParameterException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
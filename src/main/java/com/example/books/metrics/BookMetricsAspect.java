@@ -0,0 +1,96 @@
+package com.example.books.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Таймеры (p50/p99/p999) для методов BookService и BookRepository и число строк, возвращенных запросами.
+// Время ожидания соединения из пула отдельно публикует Hikari (hikaricp.connections.acquire)
+@Aspect
+@Component
+public class BookMetricsAspect {
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    private final MeterRegistry registry;
+
+    // Кэш метрик по имени метода и исходу: без поиска в реестре на каждый вызов
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Map<String, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BookMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("this(com.example.books.repository.BookRepository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        long started = System.nanoTime();
+        String outcome = "success";
+        try {
+            Object result = joinPoint.proceed();
+            recordRows(method, result);
+            return result;
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            timer("books.repository.query", method, outcome).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Around("execution(public * com.example.books.service.BookService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        long started = System.nanoTime();
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            timer("books.service.call", method, outcome).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String name, String method, String outcome) {
+        return timers.computeIfAbsent(name + '|' + method + '|' + outcome, key -> Timer.builder(name)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentiles(PERCENTILES)
+                .register(registry));
+    }
+
+    private void recordRows(String method, Object result) {
+        long rows;
+        if (result instanceof Collection<?> collection) {
+            rows = collection.size();
+        } else if (result instanceof Slice<?> slice) {
+            rows = slice.getNumberOfElements();
+        } else if (result instanceof Optional<?> optional) {
+            rows = optional.isPresent() ? 1 : 0;
+        } else {
+            return;
+        }
+        rowSummaries.computeIfAbsent(method, key -> DistributionSummary.builder("books.repository.rows")
+                .tag("method", method)
+                .publishPercentiles(PERCENTILES)
+                .register(registry))
+                .record(rows);
+    }
+}
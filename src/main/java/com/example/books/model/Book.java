@@ -1,16 +1,26 @@
 package com.example.books.model;
 
+import com.example.books.validation.Isbn;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.time.LocalDate;
 import java.util.Objects;
 
 @Entity
-@Table(name = "books")
+// Индексы повторяют миграции Flyway (db/migration) для схемы, которую создает Hibernate (профиль по умолчанию)
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_status_id", columnList = "status, id"),
+        @Index(name = "idx_books_author", columnList = "author"),
+        @Index(name = "idx_books_publication_year_id", columnList = "publication_year, id"),
+        @Index(name = "idx_books_pages", columnList = "pages")
+})
+// Кандидат в кэш второго уровня Hibernate (включается в профиле prod переменной BOOKS_L2_CACHE)
+@Cacheable
 public class Book {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Название книги не может быть пустым")
@@ -30,7 +40,7 @@ public class Book {
     @NotNull(message = "Год издания обязателен")
     @Min(value = 1000, message = "Год издания должен быть больше 1000")
     @Max(value = 2024, message = "Год издания не может быть больше текущего года")
-    @Column(nullable = false)
+    @Column(name = "publication_year", nullable = false)
     private Integer publicationYear;
     
     @NotNull(message = "Количество страниц обязательно")
@@ -39,8 +49,7 @@ public class Book {
     private Integer pages;
     
     @Column(name = "isbn", unique = true)
-    @Pattern(regexp = "^(?:ISBN(?:-1[03])?:? )?(?=[0-9X]{10}$|(?=(?:[0-9]+[- ]){3})[- 0-9X]{13}$|97[89][0-9]{10}$|(?=(?:[0-9]+[- ]){4})[- 0-9]{17}$)(?:97[89][- ]?)?[0-9]{1,5}[- ]?[0-9]+[- ]?[0-9]+[- ]?[0-9X]$", 
-             message = "ISBN должен быть в правильном формате")
+    @Isbn
     private String isbn;
     
     @Enumerated(EnumType.STRING)
@@ -53,10 +62,15 @@ public class Book {
     @Column(name = "updated_at")
     private LocalDate updatedAt;
     
+    // Версия для оптимистической блокировки
+    @Version
+    private Long version;
+    
     // Constructors
     public Book() {
-        this.createdAt = LocalDate.now();
-        this.updatedAt = LocalDate.now();
+        LocalDate today = LocalDate.now();
+        this.createdAt = today;
+        this.updatedAt = today;
     }
     
     public Book(String title, String author, String description, Integer publicationYear, Integer pages, String isbn) {
@@ -84,7 +98,6 @@ public class Book {
     
     public void setTitle(String title) {
         this.title = title;
-        this.updatedAt = LocalDate.now();
     }
     
     public String getAuthor() {
@@ -93,7 +106,6 @@ public class Book {
     
     public void setAuthor(String author) {
         this.author = author;
-        this.updatedAt = LocalDate.now();
     }
     
     public String getDescription() {
@@ -102,7 +114,6 @@ public class Book {
     
     public void setDescription(String description) {
         this.description = description;
-        this.updatedAt = LocalDate.now();
     }
     
     public Integer getPublicationYear() {
@@ -111,7 +122,6 @@ public class Book {
     
     public void setPublicationYear(Integer publicationYear) {
         this.publicationYear = publicationYear;
-        this.updatedAt = LocalDate.now();
     }
     
     public Integer getPages() {
@@ -120,7 +130,6 @@ public class Book {
     
     public void setPages(Integer pages) {
         this.pages = pages;
-        this.updatedAt = LocalDate.now();
     }
     
     public String getIsbn() {
@@ -129,7 +138,6 @@ public class Book {
     
     public void setIsbn(String isbn) {
         this.isbn = isbn;
-        this.updatedAt = LocalDate.now();
     }
     
     public BookStatus getStatus() {
@@ -138,7 +146,6 @@ public class Book {
     
     public void setStatus(BookStatus status) {
         this.status = status;
-        this.updatedAt = LocalDate.now();
     }
     
     public LocalDate getCreatedAt() {
@@ -157,6 +164,20 @@ public class Book {
         this.updatedAt = updatedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    // Дата изменения выставляется один раз при сохранении, а не в каждом сеттере
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDate.now();
+    }
+    
     // Equals and HashCode
     @Override
     public boolean equals(Object o) {
@@ -1,11 +1,26 @@
 package com.example.books.model;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum BookStatus {
     AVAILABLE("Доступна"),
     BORROWED("Взята"),
     RESERVED("Зарезервирована"),
     MAINTENANCE("На обслуживании");
     
+    // Допустимые переходы между статусами
+    private static final Map<BookStatus, Set<BookStatus>> TRANSITIONS = new EnumMap<>(BookStatus.class);
+    
+    static {
+        TRANSITIONS.put(AVAILABLE, EnumSet.of(BORROWED, RESERVED, MAINTENANCE));
+        TRANSITIONS.put(BORROWED, EnumSet.of(AVAILABLE, MAINTENANCE));
+        TRANSITIONS.put(RESERVED, EnumSet.of(BORROWED, AVAILABLE));
+        TRANSITIONS.put(MAINTENANCE, EnumSet.of(AVAILABLE));
+    }
+    
     private final String description;
     
     BookStatus(String description) {
@@ -15,4 +30,12 @@ public enum BookStatus {
     public String getDescription() {
         return description;
     }
+    
+    public boolean canTransitionTo(BookStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
+    
+    public Set<BookStatus> getAllowedTransitions() {
+        return EnumSet.copyOf(TRANSITIONS.get(this));
+    }
 }
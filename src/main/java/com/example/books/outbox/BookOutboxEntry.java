@@ -0,0 +1,80 @@
+package com.example.books.outbox;
+
+import jakarta.persistence.*;
+import org.hibernate.Length;
+
+import java.time.Instant;
+
+// Запись outbox: событие сохраняется в той же транзакции, что и изменение книги.
+// ID выдаются по одному, поэтому у записей одной книги они растут в порядке фиксации
+@Entity
+@Table(name = "book_events", indexes = @Index(name = "idx_book_events_seq", columnList = "seq, id"))
+public class BookOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_event_seq")
+    @SequenceGenerator(name = "book_event_seq", sequenceName = "book_event_seq", allocationSize = 1)
+    private Long id;
+
+    // ID книги (null для массовых событий)
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "event_type", nullable = false, length = 64)
+    private String eventType;
+
+    @Column(nullable = false, length = Length.LONG32)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Номер доставки: назначается BookOutboxRelay под блокировкой доставки (null - запись еще не пронумерована)
+    private Long seq;
+
+    @Column(name = "sequenced_at")
+    private Instant sequencedAt;
+
+    public BookOutboxEntry() {
+    }
+
+    public BookOutboxEntry(Long bookId, String eventType, String payload) {
+        this.bookId = bookId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public Instant getSequencedAt() {
+        return sequencedAt;
+    }
+
+    void sequence(long seq, Instant sequencedAt) {
+        this.seq = seq;
+        this.sequencedAt = sequencedAt;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.books.outbox;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Именованная строка-блокировка: транзакция, захватившая ее FOR UPDATE, единственная среди
+// экземпляров приложения выполняет соответствующую работу
+@Entity
+@Table(name = "book_outbox_lock")
+public class BookOutboxLock {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    public BookOutboxLock() {
+    }
+
+    public BookOutboxLock(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.books.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface BookOutboxLockRepository extends JpaRepository<BookOutboxLock, String> {
+
+    // Захват блокировки до конца транзакции без ожидания: пусто, если ее держит другая транзакция
+    @Query(value = "SELECT name FROM book_outbox_lock WHERE name = :name FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<String> tryLock(@Param("name") String name);
+}
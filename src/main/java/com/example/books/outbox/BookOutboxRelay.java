@@ -0,0 +1,233 @@
+package com.example.books.outbox;
+
+import com.example.books.event.BookEvent;
+import com.example.books.event.BookEventBatch;
+import com.example.books.event.SequencedBookEventBatch;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Фоновая доставка событий из book_events. Экземпляр, захвативший строку book_outbox_lock (FOR UPDATE SKIP LOCKED),
+// нумерует новые записи по возрастанию ID и в той же транзакции публикует их SequencedBookEventBatch
+// для общего состояния в базе (ленты изменений). Номера выдаются под блокировкой, поэтому пронумерованные записи
+// видны непрерывным префиксом. Каждый экземпляр читает записи после своего курсора и публикует их BookEventBatch
+// слушателям в памяти (поисковому индексу, аналитическому снимку): при ошибке слушателя курсор не сдвигается
+// и порция доставляется повторно (at-least-once). Записи одной книги получают ID в порядке фиксации
+// (строка книги заблокирована до конца транзакции), поэтому события одной книги доставляются по порядку.
+// Доставленные записи не удаляются: держатель блокировки удаляет их по истечении books.outbox.retention
+@Component
+public class BookOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(BookOutboxRelay.class);
+
+    static final String RELAY_LOCK = "book_outbox_relay";
+
+    private final BookOutboxRepository outboxRepository;
+
+    private final BookOutboxLockRepository lockRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final Duration retention;
+
+    private final Counter relayed;
+
+    private final Counter discarded;
+
+    private final Counter missed;
+
+    private final Timer lag;
+
+    private volatile boolean lockCreated;
+
+    // Номер последней доставленной этим экземпляром записи (-1 - курсор еще не установлен)
+    private volatile long deliveredSeq = -1;
+
+    @Autowired
+    public BookOutboxRelay(BookOutboxRepository outboxRepository, BookOutboxLockRepository lockRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                           @Value("${books.outbox.batch-size:500}") int batchSize,
+                           @Value("${books.outbox.retention:1h}") Duration retention,
+                           MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.lockRepository = lockRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.relayed = Counter.builder("books.outbox.relayed").register(meterRegistry);
+        this.discarded = Counter.builder("books.outbox.discarded").register(meterRegistry);
+        this.missed = Counter.builder("books.outbox.missed").register(meterRegistry);
+        this.lag = Timer.builder("books.outbox.lag")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+    }
+
+    // Курсор ставится на последний номер до перестроения состояния в памяти (ApplicationReadyEvent):
+    // записи, пронумерованные позже, доставляются поверх перестроенного состояния
+    @EventListener(ContextRefreshedEvent.class)
+    public synchronized void initCursor() {
+        if (deliveredSeq < 0) {
+            deliveredSeq = outboxRepository.findMaxSeq();
+        }
+    }
+
+    // Пронумеровать и доставить все накопившееся; при ошибке порция остается до следующего запуска
+    @Scheduled(fixedDelayString = "${books.outbox.relay-interval-ms:100}")
+    public void relay() {
+        try {
+            while (sequenceBatch() == batchSize) {
+                // Очередь не пуста: следующая порция сразу
+            }
+            while (deliverBatch() == batchSize) {
+                // Следующая порция сразу
+            }
+        } catch (RuntimeException e) {
+            log.error("Ошибка доставки событий outbox, порция будет доставлена повторно", e);
+        }
+    }
+
+    // Пронумеровать и доставить одну порцию, вернуть число доставленных этим экземпляром записей
+    public int relayBatch() {
+        sequenceBatch();
+        return deliverBatch();
+    }
+
+    // Пронумеровать одну порцию новых записей, вернуть их число (0, если блокировку держит другой экземпляр)
+    public int sequenceBatch() {
+        createLock();
+        Integer sequenced = transactionTemplate.execute(status -> {
+            if (lockRepository.tryLock(RELAY_LOCK).isEmpty()) {
+                // Порцию сейчас нумерует другой экземпляр
+                return 0;
+            }
+            List<BookOutboxEntry> entries = outboxRepository.findUnsequenced(PageRequest.ofSize(batchSize));
+            if (entries.isEmpty()) {
+                return 0;
+            }
+            long seq = outboxRepository.findMaxSeq();
+            Instant now = Instant.now();
+            List<BookEvent> events = new ArrayList<>(entries.size());
+            for (BookOutboxEntry entry : entries) {
+                entry.sequence(++seq, now);
+                BookEvent event = read(entry);
+                if (event != null) {
+                    events.add(event);
+                }
+            }
+            if (!events.isEmpty()) {
+                eventPublisher.publishEvent(new SequencedBookEventBatch(events));
+            }
+            return entries.size();
+        });
+        return sequenced != null ? sequenced : 0;
+    }
+
+    // Доставить слушателям этого экземпляра одну порцию после курсора, вернуть число записей
+    public synchronized int deliverBatch() {
+        initCursor();
+        List<BookOutboxEntry> entries = outboxRepository.findSequencedAfter(deliveredSeq,
+                PageRequest.ofSize(batchSize));
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        long gap = entries.get(0).getSeq() - deliveredSeq - 1;
+        if (gap > 0) {
+            // Экземпляр отстал дольше срока хранения: состояние в памяти отстает до перестроения или перезапуска
+            log.warn("Пропущено {} событий outbox, удаленных по сроку хранения до доставки", gap);
+            missed.increment(gap);
+        }
+        List<BookEvent> events = new ArrayList<>(entries.size());
+        for (BookOutboxEntry entry : entries) {
+            BookEvent event = read(entry);
+            if (event != null) {
+                events.add(event);
+            } else {
+                discarded.increment();
+            }
+        }
+        if (!events.isEmpty()) {
+            eventPublisher.publishEvent(new BookEventBatch(events));
+        }
+        deliveredSeq = entries.get(entries.size() - 1).getSeq();
+        lag.record(Duration.between(entries.get(0).getCreatedAt(), Instant.now()));
+        relayed.increment(entries.size());
+        return entries.size();
+    }
+
+    // Удалить записи старше срока хранения; удаляет только держатель блокировки
+    @Scheduled(fixedDelayString = "${books.outbox.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        try {
+            createLock();
+            transactionTemplate.executeWithoutResult(status -> {
+                if (lockRepository.tryLock(RELAY_LOCK).isPresent()) {
+                    outboxRepository.deleteSequencedBefore(outboxRepository.findMaxSeq(),
+                            Instant.now().minus(retention));
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Ошибка очистки outbox", e);
+        }
+    }
+
+    // Строка блокировки создается миграцией; без Flyway (ddl-auto) - при первом запуске
+    private void createLock() {
+        if (lockCreated) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!lockRepository.existsById(RELAY_LOCK)) {
+                    lockRepository.saveAndFlush(new BookOutboxLock(RELAY_LOCK));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Строку одновременно создал другой экземпляр
+        }
+        lockCreated = true;
+    }
+
+    // Нераспознаваемую запись доставить невозможно: она пропускается, чтобы не блокировать очередь
+    private BookEvent read(BookOutboxEntry entry) {
+        Class<? extends BookEvent> eventClass = BookOutboxWriter.eventClass(entry.getEventType());
+        if (eventClass == null) {
+            log.error("Неизвестный тип события outbox {}: {}", entry.getId(), entry.getEventType());
+            return null;
+        }
+        try {
+            return objectMapper.readValue(entry.getPayload(), eventClass);
+        } catch (JsonProcessingException e) {
+            log.error("Не удалось прочитать событие outbox {}: {}", entry.getId(), e.getMessage());
+            return null;
+        }
+    }
+}
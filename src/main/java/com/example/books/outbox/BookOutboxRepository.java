@@ -0,0 +1,32 @@
+package com.example.books.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface BookOutboxRepository extends JpaRepository<BookOutboxEntry, Long> {
+
+    // Записи без номера доставки в порядке записи
+    @Query("SELECT e FROM BookOutboxEntry e WHERE e.seq IS NULL ORDER BY e.id")
+    List<BookOutboxEntry> findUnsequenced(Pageable pageable);
+
+    // Последний выданный номер доставки (запись с наибольшим номером очистка не удаляет)
+    @Query("SELECT COALESCE(MAX(e.seq), 0) FROM BookOutboxEntry e")
+    long findMaxSeq();
+
+    // Пронумерованные записи после курсора в порядке номеров
+    @Query("SELECT e FROM BookOutboxEntry e WHERE e.seq > :after ORDER BY e.seq")
+    List<BookOutboxEntry> findSequencedAfter(@Param("after") long after, Pageable pageable);
+
+    // Удаление записей, пронумерованных раньше срока хранения; запись lastSeq остается, от нее продолжается нумерация
+    @Modifying
+    @Query("DELETE FROM BookOutboxEntry e WHERE e.seq < :lastSeq AND e.sequencedAt < :before")
+    int deleteSequencedBefore(@Param("lastSeq") long lastSeq, @Param("before") Instant before);
+}
@@ -0,0 +1,68 @@
+package com.example.books.outbox;
+
+import com.example.books.event.BookChangedEvent;
+import com.example.books.event.BookEvent;
+import com.example.books.event.BookStatusBulkChangedEvent;
+import com.example.books.event.BooksClearedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+
+// Запись событий BookService в таблицу book_events перед фиксацией транзакции изменения:
+// событие и изменение фиксируются или откатываются вместе
+@Component
+public class BookOutboxWriter {
+
+    private static final Map<Class<? extends BookEvent>, String> EVENT_TYPES = Map.of(
+            BookChangedEvent.class, "BOOK_CHANGED",
+            BookStatusBulkChangedEvent.class, "BOOK_STATUS_BULK_CHANGED",
+            BooksClearedEvent.class, "BOOKS_CLEARED");
+
+    private final BookOutboxRepository outboxRepository;
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public BookOutboxWriter(BookOutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // Класс события по типу из outbox
+    static Class<? extends BookEvent> eventClass(String eventType) {
+        return EVENT_TYPES.entrySet().stream()
+                .filter(entry -> entry.getValue().equals(eventType))
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElse(null);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBookChanged(BookChangedEvent event) {
+        write(event.bookId(), event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBooksStatusChanged(BookStatusBulkChangedEvent event) {
+        write(null, event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBooksCleared(BooksClearedEvent event) {
+        write(null, event);
+    }
+
+    private void write(Long bookId, BookEvent event) {
+        try {
+            outboxRepository.save(new BookOutboxEntry(bookId, EVENT_TYPES.get(event.getClass()),
+                    objectMapper.writeValueAsString(event)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие " + event, e);
+        }
+    }
+}
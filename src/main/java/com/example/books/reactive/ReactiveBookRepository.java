@@ -0,0 +1,49 @@
+package com.example.books.reactive;
+
+import com.example.books.model.BookStatus;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Неблокирующие аналоги запросов BookRepository (только чтение)
+@Repository
+public interface ReactiveBookRepository extends R2dbcRepository<BookRow, Long> {
+
+    // Все книги в порядке ID (для потоковой выгрузки)
+    Flux<BookRow> findAllByOrderByIdAsc();
+
+    // Поиск книг по названию (без учета регистра)
+    Flux<BookRow> findByTitleContainingIgnoreCaseOrderByIdAsc(String title);
+
+    // Поиск книг по автору (без учета регистра)
+    Flux<BookRow> findByAuthorContainingIgnoreCaseOrderByIdAsc(String author);
+
+    // Поиск книг по статусу
+    Flux<BookRow> findByStatusOrderByIdAsc(BookStatus status);
+
+    // Поиск книг по году издания
+    Flux<BookRow> findByPublicationYearOrderByIdAsc(Integer year);
+
+    // Поиск книг по диапазону годов
+    Flux<BookRow> findByPublicationYearBetweenOrderByIdAsc(Integer startYear, Integer endYear);
+
+    // Поиск книги по ISBN
+    Mono<BookRow> findByIsbn(String isbn);
+
+    // Поиск книг по ключевым словам в названии или описании
+    // (pattern уже в нижнем регистре, с %, спецсимволы экранированы как в BookSpecifications.containsPattern)
+    @Query("SELECT * FROM books WHERE LOWER(title) LIKE :pattern ESCAPE '\\' " +
+           "OR LOWER(description) LIKE :pattern ESCAPE '\\' ORDER BY id")
+    Flux<BookRow> findByKeyword(@Param("pattern") String pattern);
+
+    // Книги с количеством страниц не меньше указанного
+    @Query("SELECT * FROM books WHERE pages >= :minPages ORDER BY pages ASC")
+    Flux<BookRow> findByMinPages(@Param("minPages") Integer minPages);
+
+    // Книги с количеством страниц не больше указанного
+    @Query("SELECT * FROM books WHERE pages <= :maxPages ORDER BY pages DESC")
+    Flux<BookRow> findByMaxPages(@Param("maxPages") Integer maxPages);
+}
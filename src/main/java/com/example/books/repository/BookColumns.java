@@ -0,0 +1,17 @@
+package com.example.books.repository;
+
+import com.example.books.model.BookStatus;
+
+// Проекция полей книги, нужных для аналитики (без текстовых полей, кроме автора)
+public interface BookColumns {
+    
+    Long getId();
+    
+    String getAuthor();
+    
+    Integer getPublicationYear();
+    
+    Integer getPages();
+    
+    BookStatus getStatus();
+}
@@ -0,0 +1,13 @@
+package com.example.books.repository;
+
+import com.example.books.model.BookStatus;
+
+import java.util.Collection;
+
+// Условия отбора книг для массовых операций; незаданные (null) условия не применяются
+public record BookFilter(Collection<Long> ids, BookStatus status, String author, Integer yearFrom, Integer yearTo) {
+    
+    public BookFilter withIds(Collection<Long> chunkIds) {
+        return new BookFilter(chunkIds, status, author, yearFrom, yearTo);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.books.repository;
+
+import com.example.books.model.BookStatus;
+
+// Проекция (id, status) для массовых операций
+public interface BookIdStatus {
+    
+    Long getId();
+    
+    BookStatus getStatus();
+}
@@ -0,0 +1,7 @@
+package com.example.books.repository;
+
+// Проекция (id, status, isbn) для порционного удаления: ISBN нужен событию удаления
+public interface BookIdStatusIsbn extends BookIdStatus {
+    
+    String getIsbn();
+}
@@ -2,18 +2,26 @@ package com.example.books.repository;
 
 import com.example.books.model.Book;
 import com.example.books.model.BookStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
     
     // Поиск по названию (без учета регистра)
     List<Book> findByTitleContainingIgnoreCase(String title);
@@ -51,12 +59,80 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     // Поиск по автору с пагинацией
     Page<Book> findByAuthorContainingIgnoreCase(String author, Pageable pageable);
     
+    // Keyset-пагинация: следующая порция после указанного ID, без запроса count
+    Slice<Book> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+    
+    // Keyset-пагинация по статусу (предикат (status, id))
+    Slice<Book> findByStatusAndIdGreaterThanOrderByIdAsc(BookStatus status, Long afterId, Pageable pageable);
+    
+    // Keyset-пагинация по автору
+    Slice<Book> findByAuthorContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(String author, Long afterId, Pageable pageable);
+    
+    // Keyset-пагинация по статусу и автору
+    Slice<Book> findByStatusAndAuthorContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(BookStatus status, String author,
+                                                                                      Long afterId, Pageable pageable);
+    
     // Подсчет книг по статусу
     long countByStatus(BookStatus status);
     
+    // Подсчет книг по всем статусам одним запросом
+    @Query("SELECT b.status AS status, COUNT(b) AS count FROM Book b GROUP BY b.status")
+    List<StatusCount> countGroupByStatus();
+    
     // Проверка существования книги по ISBN
     boolean existsByIsbn(String isbn);
     
+    // Проверка существования другой книги с тем же ISBN
+    boolean existsByIsbnAndIdNot(String isbn, Long id);
+    
+    // Текущий статус книги без загрузки сущности
+    @Query("SELECT b.status FROM Book b WHERE b.id = :id")
+    Optional<BookStatus> findStatusById(@Param("id") Long id);
+    
+    // Текущие статус и ISBN книги одним запросом без загрузки сущности
+    @Query("SELECT b.status AS status, b.isbn AS isbn FROM Book b WHERE b.id = :id")
+    Optional<BookStatusIsbn> findStatusAndIsbnById(@Param("id") Long id);
+    
+    // Версия книги для условных запросов без загрузки сущности
+    @Query("SELECT COALESCE(b.version, 0) FROM Book b WHERE b.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+    
+    // Смена статуса по принципу compare-and-set: обновляется только если статус равен ожидаемому
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.status = :newStatus, b.updatedAt = :today, b.version = b.version + 1 " +
+           "WHERE b.id = :id AND b.status = :expectedStatus")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("expectedStatus") BookStatus expectedStatus,
+                            @Param("newStatus") BookStatus newStatus,
+                            @Param("today") LocalDate today);
+    
+    // ISBN из списка, которые уже есть в базе (одним запросом IN)
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+    
+    // Тройки (id, status, isbn) порцией после указанного ID (для порционного удаления)
+    @Query("SELECT b.id AS id, b.status AS status, b.isbn AS isbn FROM Book b WHERE b.id > :afterId ORDER BY b.id")
+    List<BookIdStatusIsbn> findIdStatusIsbnsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Массовая смена статуса: обновляются только книги из списка, статус которых все еще равен ожидаемому
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.status = :newStatus, b.updatedAt = :today, b.version = b.version + 1 " +
+           "WHERE b.id IN :ids AND b.status = :expectedStatus")
+    int bulkCompareAndSetStatus(@Param("ids") Collection<Long> ids,
+                                @Param("expectedStatus") BookStatus expectedStatus,
+                                @Param("newStatus") BookStatus newStatus,
+                                @Param("today") LocalDate today);
+    
+    // Удаление всех книг одним запросом
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Book b")
+    int bulkDeleteAll();
+    
+    // Удаление книг по списку ID одним запросом
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Book b WHERE b.id IN :ids")
+    int bulkDeleteByIds(@Param("ids") Collection<Long> ids);
+    
     // Поиск книг с минимальным количеством страниц
     @Query("SELECT b FROM Book b WHERE b.pages >= :minPages ORDER BY b.pages ASC")
     List<Book> findByMinPages(@Param("minPages") Integer minPages);
@@ -64,4 +140,29 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     // Поиск книг с максимальным количеством страниц
     @Query("SELECT b FROM Book b WHERE b.pages <= :maxPages ORDER BY b.pages DESC")
     List<Book> findByMaxPages(@Param("maxPages") Integer maxPages);
+    
+    // Потоковое чтение всех книг через JDBC-курсор (требует открытой транзакции)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Book b ORDER BY b.id")
+    Stream<Book> streamAll();
+    
+    // Потоковое чтение всех ISBN (для фильтра Блума)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn IS NOT NULL")
+    Stream<String> streamIsbns();
+    
+    // Потоковое чтение только колонок для аналитики
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b.id AS id, b.author AS author, b.publicationYear AS publicationYear, " +
+           "b.pages AS pages, b.status AS status FROM Book b ORDER BY b.id")
+    Stream<BookColumns> streamColumns();
 }
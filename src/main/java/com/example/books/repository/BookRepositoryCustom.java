@@ -0,0 +1,26 @@
+package com.example.books.repository;
+
+import com.example.books.model.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Запросы, которые строятся динамически и не выражаются производными методами
+public interface BookRepositoryCustom {
+    
+    // Точечный UPDATE только переданных полей без загрузки сущности.
+    // expectedVersion (если задана) и ожидаемые прежние значения полей expectedValues (null - IS NULL)
+    // добавляются в условие WHERE; возвращает число обновленных строк
+    int patch(Long id, Map<String, Object> changes, Long expectedVersion, Map<String, Object> expectedValues);
+    
+    // Пары (id, status) книг, подходящих под фильтр, порцией после указанного ID в порядке возрастания ID
+    List<BookIdStatus> findIdStatuses(BookFilter filter, Long afterId, int limit);
+    
+    // Выборка только указанных полей (в SELECT попадают только их колонки); строки - поле -> значение.
+    // Для Pageable.unpaged() запрос количества не выполняется
+    Page<Map<String, Object>> findFields(Set<String> fields, Specification<Book> specification, Pageable pageable);
+}
@@ -0,0 +1,157 @@
+package com.example.books.repository;
+
+import com.example.books.model.Book;
+import com.example.books.model.BookStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class BookRepositoryImpl implements BookRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public int patch(Long id, Map<String, Object> changes, Long expectedVersion, Map<String, Object> expectedValues) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Book> update = cb.createCriteriaUpdate(Book.class);
+        Root<Book> book = update.from(Book.class);
+        
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            Path<Object> attribute = book.get(change.getKey());
+            // Приведение к Object выбирает перегрузку set(Path, value): null становится NULL в SET
+            update.set(attribute, (Object) change.getValue());
+        }
+        update.set(book.<LocalDate>get("updatedAt"), LocalDate.now());
+        update.set(book.<Long>get("version"), cb.sum(book.<Long>get("version"), 1L));
+        
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(book.get("id"), id));
+        if (expectedVersion != null) {
+            predicates.add(cb.equal(book.get("version"), expectedVersion));
+        }
+        for (Map.Entry<String, Object> expected : expectedValues.entrySet()) {
+            Path<Object> attribute = book.get(expected.getKey());
+            predicates.add(expected.getValue() != null
+                    ? cb.equal(attribute, expected.getValue())
+                    : cb.isNull(attribute));
+        }
+        update.where(predicates.toArray(new Predicate[0]));
+        
+        entityManager.flush();
+        int updated = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+    
+    @Override
+    public List<BookIdStatus> findIdStatuses(BookFilter filter, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> book = query.from(Book.class);
+        Path<Long> id = book.get("id");
+        Path<BookStatus> status = book.get("status");
+        
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.greaterThan(id, afterId));
+        if (filter.ids() != null) {
+            predicates.add(id.in(filter.ids()));
+        }
+        if (filter.status() != null) {
+            predicates.add(cb.equal(status, filter.status()));
+        }
+        if (filter.author() != null) {
+            predicates.add(cb.like(cb.lower(book.get("author")),
+                    BookSpecifications.containsPattern(filter.author()), BookSpecifications.LIKE_ESCAPE));
+        }
+        if (filter.yearFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(book.get("publicationYear"), filter.yearFrom()));
+        }
+        if (filter.yearTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(book.get("publicationYear"), filter.yearTo()));
+        }
+        query.multiselect(id, status)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(id));
+        
+        List<BookIdStatus> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).setMaxResults(limit).getResultList()) {
+            rows.add(new IdStatus(tuple.get(0, Long.class), tuple.get(1, BookStatus.class)));
+        }
+        return rows;
+    }
+    
+    private record IdStatus(Long getId, BookStatus getStatus) implements BookIdStatus {
+    }
+    
+    @Override
+    public Page<Map<String, Object>> findFields(Set<String> fields, Specification<Book> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> book = query.from(Book.class);
+        
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(book.get(field).alias(field));
+        }
+        query.multiselect(selections);
+        Predicate predicate = specification.toPredicate(book, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), book, cb));
+        }
+        
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(rows);
+        }
+        return new PageImpl<>(rows, pageable, count(specification));
+    }
+    
+    private long count(Specification<Book> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Book> book = query.from(Book.class);
+        query.select(cb.count(book));
+        Predicate predicate = specification.toPredicate(book, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.books.repository;
+
+import com.example.books.model.Book;
+import com.example.books.model.BookStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.Locale;
+
+// Условия отбора книг для динамических запросов (выборка отдельных полей)
+public final class BookSpecifications {
+    
+    // Символ экранирования для LIKE: % и _ из пользовательского ввода ищутся буквально
+    public static final char LIKE_ESCAPE = '\\';
+    
+    private BookSpecifications() {
+    }
+    
+    public static Specification<Book> all() {
+        return (root, query, cb) -> cb.conjunction();
+    }
+    
+    public static Specification<Book> hasStatus(BookStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+    
+    public static Specification<Book> titleContains(String title) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("title")), containsPattern(title), LIKE_ESCAPE);
+    }
+    
+    public static Specification<Book> authorContains(String author) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("author")), containsPattern(author), LIKE_ESCAPE);
+    }
+    
+    // Ключевое слово в названии или описании (как BookRepository.findByKeyword)
+    public static Specification<Book> keyword(String keyword) {
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("title")), containsPattern(keyword), LIKE_ESCAPE),
+                cb.like(cb.lower(root.get("description")), containsPattern(keyword), LIKE_ESCAPE));
+    }
+    
+    public static Specification<Book> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+    
+    // Шаблон "содержит" в нижнем регистре с экранированными \, % и _
+    public static String containsPattern(String value) {
+        String escaped = value.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.books.repository;
+
+import com.example.books.model.BookStatus;
+
+// Проекция (status, isbn): прежние значения для условия частичного обновления
+public interface BookStatusIsbn {
+    
+    BookStatus getStatus();
+    
+    String getIsbn();
+}
@@ -0,0 +1,11 @@
+package com.example.books.repository;
+
+import com.example.books.model.BookStatus;
+
+// Проекция результата GROUP BY status
+public interface StatusCount {
+    
+    BookStatus getStatus();
+    
+    Long getCount();
+}
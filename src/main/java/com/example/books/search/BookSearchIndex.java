@@ -0,0 +1,344 @@
+package com.example.books.search;
+
+import com.example.books.dto.BookDto;
+import com.example.books.event.BookChangeType;
+import com.example.books.event.BookChangedEvent;
+import com.example.books.event.BookEvent;
+import com.example.books.event.BookEventBatch;
+import com.example.books.event.BookStatusBulkChangedEvent;
+import com.example.books.event.BooksClearedEvent;
+import com.example.books.model.Book;
+import com.example.books.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Инвертированный индекс по названию, автору и описанию книг
+@Component
+public class BookSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    // Точное совпадение терма весит больше, чем совпадение по префиксу
+    private static final double EXACT_MATCH_BOOST = 2.0;
+
+    public enum SearchField {
+        TITLE(3.0),
+        AUTHOR(2.0),
+        DESCRIPTION(1.0);
+
+        private final double weight;
+
+        SearchField(double weight) {
+            this.weight = weight;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+    }
+
+    private final BookRepository bookRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Lock rebuildLock = new ReentrantLock();
+
+    private Index current = new Index();
+
+    // Изменения, пришедшие во время перестроения: повторяются на новом индексе перед подменой
+    private final List<Consumer<Index>> pendingDuringRebuild = new ArrayList<>();
+
+    private boolean rebuilding;
+
+    private volatile boolean ready;
+
+    // Версия содержимого индекса: растет после применения каждой порции событий и перестроения.
+    // Индекс догоняет БД асинхронно, поэтому ETag поиска учитывает и ее, а не только версию коллекции
+    private final AtomicLong version = new AtomicLong();
+
+    @Autowired
+    public BookSearchIndex(BookRepository bookRepository, MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        Gauge.builder("books.search.index.documents", this, BookSearchIndex::size)
+                .register(meterRegistry);
+    }
+
+    // Индекс построен и может отвечать на запросы
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return current.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Перестроение потоковым чтением таблицы в новый индекс; до подмены запросы обслуживает прежний.
+    // События, пришедшие за время чтения, применяются к прежнему индексу и повторяются на новом
+    // под той же блокировкой записи, что и подмена, поэтому устаревшая строка из БД их не перезапишет
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            doRebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void doRebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            pendingDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index fresh = new Index();
+        boolean completed = false;
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            books.forEach(book -> {
+                fresh.put(analyze(book.getId(), book.getTitle(), book.getAuthor(), book.getDescription()));
+                entityManager.detach(book);
+            });
+            completed = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (completed) {
+                    pendingDuringRebuild.forEach(change -> change.accept(fresh));
+                    current = fresh;
+                }
+                pendingDuringRebuild.clear();
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        ready = true;
+        version.incrementAndGet();
+        log.info("Поисковый индекс построен: {} книг за {} мс", fresh.documents.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Синхронизация индекса событиями из outbox (фоновый поток BookOutboxRelay); повторная доставка безвредна
+    @EventListener
+    public void onEvents(BookEventBatch batch) {
+        for (BookEvent event : batch.events()) {
+            switch (event) {
+                case BookChangedEvent changed -> onBookChanged(changed);
+                case BooksClearedEvent cleared -> clear();
+                case BookStatusBulkChangedEvent bulk -> {
+                    // Статус не индексируется
+                }
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    private void onBookChanged(BookChangedEvent event) {
+        if (event.type() == BookChangeType.DELETED) {
+            remove(event.bookId());
+        } else {
+            index(event.book());
+        }
+    }
+
+    // Добавить или переиндексировать книгу
+    public void index(BookDto book) {
+        // Текст анализируется до блокировки; при повторе на новом индексе используется тот же результат
+        Document document = analyze(book.getId(), book.getTitle(), book.getAuthor(), book.getDescription());
+        apply(target -> target.put(document));
+    }
+
+    // Удалить книгу из индекса
+    public void remove(Long id) {
+        apply(target -> target.remove(id));
+    }
+
+    // Очистить индекс
+    public void clear() {
+        apply(Index::clear);
+    }
+
+    private void apply(Consumer<Index> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(current);
+            if (rebuilding) {
+                pendingDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Поиск по полям: все термы запроса должны совпасть (по префиксу), результат отсортирован по релевантности
+    public List<Long> search(String query, SearchField... fields) {
+        Set<String> terms = TextAnalyzer.analyzeQuery(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String term : terms) {
+                Map<Long, Double> termScores = current.scoreTerm(term, fields);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + termScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()));
+            List<Long> ids = new ArrayList<>(ranked.size());
+            for (Map.Entry<Long, Double> entry : ranked) {
+                ids.add(entry.getKey());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Document analyze(Long id, String title, String author, String description) {
+        Map<SearchField, Map<String, Integer>> frequencies = new EnumMap<>(SearchField.class);
+        frequencies.put(SearchField.TITLE, frequencies(TextAnalyzer.analyze(title)));
+        frequencies.put(SearchField.AUTHOR, frequencies(TextAnalyzer.analyze(author)));
+        frequencies.put(SearchField.DESCRIPTION, frequencies(TextAnalyzer.analyze(description)));
+        return new Document(id, frequencies);
+    }
+
+    private static Map<String, Integer> frequencies(List<String> terms) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    // Проанализированная книга: частоты термов по полям
+    private record Document(Long id, Map<SearchField, Map<String, Integer>> frequencies) {
+    }
+
+    // Содержимое индекса; изменяется только под блокировкой записи (новый индекс при перестроении -
+    // только потоком перестроения до подмены)
+    private static final class Index {
+
+        // терм -> (ID книги -> частота терма в поле)
+        private final Map<SearchField, NavigableMap<String, Map<Long, Integer>>> postings = new EnumMap<>(SearchField.class);
+
+        // Прямой индекс: ID книги -> термы по полям (нужен для удаления старых постингов)
+        private final Map<Long, Map<SearchField, Set<String>>> documents = new HashMap<>();
+
+        Index() {
+            for (SearchField field : SearchField.values()) {
+                postings.put(field, new TreeMap<>());
+            }
+        }
+
+        Map<Long, Double> scoreTerm(String term, SearchField[] fields) {
+            Map<Long, Double> termScores = new HashMap<>();
+            for (SearchField field : fields) {
+                NavigableMap<String, Map<Long, Integer>> matches =
+                        postings.get(field).subMap(term, true, term + Character.MAX_VALUE, false);
+                for (Map.Entry<String, Map<Long, Integer>> match : matches.entrySet()) {
+                    double boost = match.getKey().length() == term.length() ? EXACT_MATCH_BOOST : 1.0;
+                    for (Map.Entry<Long, Integer> posting : match.getValue().entrySet()) {
+                        termScores.merge(posting.getKey(), field.getWeight() * boost * posting.getValue(), Double::sum);
+                    }
+                }
+            }
+            return termScores;
+        }
+
+        void put(Document document) {
+            Long id = document.id();
+            remove(id);
+            Map<SearchField, Set<String>> terms = new EnumMap<>(SearchField.class);
+            for (Map.Entry<SearchField, Map<String, Integer>> entry : document.frequencies().entrySet()) {
+                NavigableMap<String, Map<Long, Integer>> dictionary = postings.get(entry.getKey());
+                for (Map.Entry<String, Integer> frequency : entry.getValue().entrySet()) {
+                    dictionary.computeIfAbsent(frequency.getKey(), key -> new HashMap<>())
+                            .put(id, frequency.getValue());
+                }
+                terms.put(entry.getKey(), entry.getValue().keySet());
+            }
+            documents.put(id, terms);
+        }
+
+        void remove(Long id) {
+            Map<SearchField, Set<String>> document = documents.remove(id);
+            if (document == null) {
+                return;
+            }
+            for (Map.Entry<SearchField, Set<String>> entry : document.entrySet()) {
+                NavigableMap<String, Map<Long, Integer>> dictionary = postings.get(entry.getKey());
+                for (String term : entry.getValue()) {
+                    Map<Long, Integer> termPostings = dictionary.get(term);
+                    if (termPostings != null) {
+                        termPostings.remove(id);
+                        if (termPostings.isEmpty()) {
+                            dictionary.remove(term);
+                        }
+                    }
+                }
+            }
+        }
+
+        void clear() {
+            postings.values().forEach(Map::clear);
+            documents.clear();
+        }
+    }
+}
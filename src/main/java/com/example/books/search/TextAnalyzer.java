@@ -0,0 +1,63 @@
+package com.example.books.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Токенизация и нормализация текста: приведение к нижнему регистру, ё -> е, легкий стемминг русских окончаний
+final class TextAnalyzer {
+    
+    private static final int MIN_STEM_LENGTH = 3;
+    
+    // Окончания упорядочены по убыванию длины, чтобы срезалось самое длинное
+    private static final String[] ENDINGS = {
+            "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими",
+            "ой", "ей", "ий", "ый", "ая", "яя", "ое", "ее", "ие", "ые", "ую", "юю",
+            "ов", "ев", "ах", "ях", "ом", "ем", "ам", "ям", "ию", "ия",
+            "ь", "а", "я", "ы", "и", "у", "ю", "е", "о"
+    };
+    
+    private TextAnalyzer() {}
+    
+    // Все термы текста в порядке появления (с повторами — для подсчета частоты)
+    static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(fold(c));
+            } else if (token.length() > 0) {
+                terms.add(stem(token.toString()));
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            terms.add(stem(token.toString()));
+        }
+        return terms;
+    }
+    
+    // Уникальные термы запроса
+    static Set<String> analyzeQuery(String query) {
+        return new LinkedHashSet<>(analyze(query));
+    }
+    
+    private static char fold(char c) {
+        char lower = Character.toLowerCase(c);
+        return lower == 'ё' ? 'е' : lower;
+    }
+    
+    private static String stem(String token) {
+        for (String ending : ENDINGS) {
+            if (token.length() - ending.length() >= MIN_STEM_LENGTH && token.endsWith(ending)) {
+                return token.substring(0, token.length() - ending.length());
+            }
+        }
+        return token;
+    }
+}
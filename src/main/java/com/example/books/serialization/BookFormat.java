@@ -0,0 +1,52 @@
+package com.example.books.serialization;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Форматы представления книг: JSON и компактные бинарные CBOR и Smile
+public enum BookFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(MediaType.valueOf(BookFormat.SMILE_VALUE));
+    
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+    
+    private final MediaType mediaType;
+    
+    BookFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+    
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+    
+    // Выбор формата по заголовку Accept с учетом q; по умолчанию JSON
+    public static BookFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : accepted) {
+            if (mediaType.isWildcardType() || mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            for (BookFormat format : values()) {
+                if (mediaType.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.books.serialization;
+
+import com.example.books.dto.BookDto;
+import com.example.books.event.BooksClearedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Готовые байты BookDto по (id, версия, формат). Версия меняется при любой записи,
+// поэтому устаревшие записи не отдаются и вытесняются по размеру без явной инвалидации
+@Component
+public class SerializedBookCache {
+
+    // Маркеры массива неопределенной длины в CBOR
+    private static final int CBOR_INDEFINITE_ARRAY = 0x9F;
+    private static final int CBOR_BREAK = 0xFF;
+
+    private final Map<BookFormat, ObjectWriter> writers = new EnumMap<>(BookFormat.class);
+
+    private final Map<BookFormat, ObjectWriter> listWriters = new EnumMap<>(BookFormat.class);
+
+    private final Cache<Key, byte[]> cache;
+
+    @Autowired
+    public SerializedBookCache(ObjectMapper objectMapper,
+                               MappingJackson2CborHttpMessageConverter cborConverter,
+                               MappingJackson2SmileHttpMessageConverter smileConverter,
+                               @Value("${books.serialized-cache.max-size:32MB}") DataSize maxSize,
+                               MeterRegistry meterRegistry) {
+        register(BookFormat.JSON, objectMapper);
+        register(BookFormat.CBOR, cborConverter.getObjectMapper());
+        register(BookFormat.SMILE, smileConverter.getObjectMapper());
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, byte[] bytes) -> bytes.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "books-serialized");
+    }
+
+    private void register(BookFormat format, ObjectMapper mapper) {
+        writers.put(format, mapper.writerFor(BookDto.class));
+        listWriters.put(format, mapper.writerFor(BookDto[].class));
+    }
+
+    // Представление одной книги
+    public byte[] get(BookDto book, BookFormat format) {
+        return cache.get(new Key(book.getId(), book.getVersion(), format), key -> serialize(book, format));
+    }
+
+    // Представление списка: для JSON и CBOR массив собирается из готовых байтов элементов,
+    // Smile использует ссылки на повторяющиеся строки внутри документа и сериализуется целиком
+    public byte[] getList(List<BookDto> books, BookFormat format) {
+        if (format == BookFormat.SMILE) {
+            try {
+                return listWriters.get(format).writeValueAsBytes(books.toArray(new BookDto[0]));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, books.size() * 256));
+        out.write(format == BookFormat.JSON ? '[' : CBOR_INDEFINITE_ARRAY);
+        for (int i = 0; i < books.size(); i++) {
+            if (format == BookFormat.JSON && i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(get(books.get(i), format));
+        }
+        out.write(format == BookFormat.JSON ? ']' : CBOR_BREAK);
+        return out.toByteArray();
+    }
+
+    @TransactionalEventListener
+    public void onBooksCleared(BooksClearedEvent event) {
+        cache.invalidateAll();
+    }
+
+    private byte[] serialize(BookDto book, BookFormat format) {
+        try {
+            return writers.get(format).writeValueAsBytes(book);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Key(Long id, Long version, BookFormat format) {
+    }
+}
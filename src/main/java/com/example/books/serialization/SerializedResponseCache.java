@@ -0,0 +1,99 @@
+package com.example.books.serialization;
+
+import com.example.books.cache.BookCollectionVersion;
+import com.example.books.event.BookChangedEvent;
+import com.example.books.event.BookStatusBulkChangedEvent;
+import com.example.books.event.BooksClearedEvent;
+import com.example.books.model.BookStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Готовые тела ответов горячих эндпоинтов по (версия коллекции, ресурс, формат), ограничены суммарным размером.
+// Версия коллекции фиксируется до выполнения запроса, поэтому ответ, собранный параллельно с записью,
+// сохраняется под устаревшей версией и не будет отдан
+@Component
+public class SerializedResponseCache {
+
+    private final Map<BookFormat, ObjectMapper> mappers = new EnumMap<>(BookFormat.class);
+
+    // Статусы книг не меняются: сериализуются один раз при старте
+    private final Map<BookFormat, byte[]> statuses = new EnumMap<>(BookFormat.class);
+
+    private final BookCollectionVersion collectionVersion;
+
+    private final Cache<Key, byte[]> cache;
+
+    @Autowired
+    public SerializedResponseCache(ObjectMapper objectMapper,
+                                   MappingJackson2CborHttpMessageConverter cborConverter,
+                                   MappingJackson2SmileHttpMessageConverter smileConverter,
+                                   BookCollectionVersion collectionVersion,
+                                   @Value("${books.response-cache.max-size:64MB}") DataSize maxSize,
+                                   MeterRegistry meterRegistry) {
+        this.collectionVersion = collectionVersion;
+        mappers.put(BookFormat.JSON, objectMapper);
+        mappers.put(BookFormat.CBOR, cborConverter.getObjectMapper());
+        mappers.put(BookFormat.SMILE, smileConverter.getObjectMapper());
+        for (BookFormat format : BookFormat.values()) {
+            statuses.put(format, serialize(BookStatus.values(), format));
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, byte[] bytes) -> bytes.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "books-responses");
+    }
+
+    public byte[] getStatuses(BookFormat format) {
+        return statuses.get(format);
+    }
+
+    // Тело ответа ресурса (путь с параметрами) в формате format; при промахе строится загрузчиком
+    public byte[] get(String resource, BookFormat format, Supplier<byte[]> loader) {
+        return cache.get(new Key(collectionVersion.getVersion(), resource, format), key -> loader.get());
+    }
+
+    public byte[] serialize(Object value, BookFormat format) {
+        try {
+            return mappers.get(format).writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Записи прежних версий больше не запрашиваются: освобождаем память сразу после записи
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener
+    public void onBooksStatusChanged(BookStatusBulkChangedEvent event) {
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener
+    public void onBooksCleared(BooksClearedEvent event) {
+        cache.invalidateAll();
+    }
+
+    private record Key(long collectionVersion, String resource, BookFormat format) {
+    }
+}
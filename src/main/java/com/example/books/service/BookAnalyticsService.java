@@ -0,0 +1,65 @@
+package com.example.books.service;
+
+import com.example.books.analytics.BookColumnarSnapshot;
+import com.example.books.exception.InvalidRequestParameterException;
+import com.example.books.model.BookStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+// Аналитика по колоночному снимку в памяти, без обращения к БД
+@Service
+public class BookAnalyticsService {
+    
+    private static final int MAX_AUTHORS_LIMIT = 1000;
+    
+    private final BookColumnarSnapshot snapshot;
+    
+    @Autowired
+    public BookAnalyticsService(BookColumnarSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+    
+    // Количество книг по статусу, диапазону лет и диапазону страниц
+    public long countBooks(BookStatus status, Integer yearFrom, Integer yearTo, Integer minPages, Integer maxPages) {
+        checkRange(yearFrom, yearTo, "Начальный год не может быть больше конечного");
+        checkRange(minPages, maxPages, "Минимальное количество страниц не может быть больше максимального");
+        ensureReady();
+        return snapshot.count(status, yearFrom, yearTo, minPages, maxPages);
+    }
+    
+    // Количество книг по десятилетиям
+    public Map<Integer, Long> getDecadeHistogram(BookStatus status) {
+        ensureReady();
+        return snapshot.decadeHistogram(status);
+    }
+    
+    // Перцентили количества страниц
+    public Map<String, Number> getPagePercentiles(BookStatus status, Integer yearFrom, Integer yearTo) {
+        checkRange(yearFrom, yearTo, "Начальный год не может быть больше конечного");
+        ensureReady();
+        return snapshot.pagePercentiles(status, yearFrom, yearTo);
+    }
+    
+    // Количество книг по авторам
+    public Map<String, Long> getAuthorCounts(BookStatus status, int limit) {
+        if (limit < 1 || limit > MAX_AUTHORS_LIMIT) {
+            throw new InvalidRequestParameterException("Количество авторов должно быть от 1 до " + MAX_AUTHORS_LIMIT);
+        }
+        ensureReady();
+        return snapshot.authorCounts(status, limit);
+    }
+    
+    private void ensureReady() {
+        if (!snapshot.isReady()) {
+            snapshot.rebuildIfNotReady();
+        }
+    }
+    
+    private static void checkRange(Integer from, Integer to, String message) {
+        if (from != null && to != null && from > to) {
+            throw new InvalidRequestParameterException(message);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.books.service;
+
+import com.example.books.changes.BookChange;
+import com.example.books.changes.BookChangeKind;
+import com.example.books.changes.BookChangeRepository;
+import com.example.books.changes.BookChangesAppendedEvent;
+import com.example.books.dto.BookChangeDto;
+import com.example.books.dto.BookChangesDto;
+import com.example.books.dto.BookDto;
+import com.example.books.exception.InvalidRequestParameterException;
+import com.example.books.model.Book;
+import com.example.books.repository.BookRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Лента изменений для инкрементальной синхронизации клиентов: изменения после токена порциями,
+// при пустой ленте запрос ждет новых изменений (long polling)
+@Service
+public class BookChangeFeedService {
+    
+    private static final int MAX_LIMIT = 1000;
+    
+    private static final int MAX_WAIT_SECONDS = 60;
+    
+    private final BookChangeRepository changeRepository;
+    
+    private final BookRepository bookRepository;
+    
+    private final TransactionTemplate readOnlyTransaction;
+    
+    private final AsyncTaskExecutor taskExecutor;
+    
+    // Ожидающие long-poll запросы
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    
+    // Число записей в ленту: позволяет заметить запись между чтением и постановкой в ожидание
+    private final AtomicLong appends = new AtomicLong();
+    
+    @Autowired
+    public BookChangeFeedService(BookChangeRepository changeRepository, BookRepository bookRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                                 AsyncTaskExecutor taskExecutor,
+                                 MeterRegistry meterRegistry) {
+        this.changeRepository = changeRepository;
+        this.bookRepository = bookRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.taskExecutor = taskExecutor;
+        Gauge.builder("books.changes.waiting", waiters, Queue::size)
+                .register(meterRegistry);
+    }
+    
+    // Изменения после токена since; если их нет, ответ ждет до waitSeconds секунд
+    public DeferredResult<BookChangesDto> awaitChanges(long since, int limit, int waitSeconds) {
+        if (since < 0) {
+            throw new InvalidRequestParameterException("Токен since не может быть отрицательным");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidRequestParameterException("Размер порции должен быть от 1 до " + MAX_LIMIT);
+        }
+        if (waitSeconds < 0 || waitSeconds > MAX_WAIT_SECONDS) {
+            throw new InvalidRequestParameterException("Время ожидания должно быть от 0 до " + MAX_WAIT_SECONDS + " секунд");
+        }
+        
+        long appendsBefore = appends.get();
+        BookChangesDto changes = getChanges(since, limit);
+        DeferredResult<BookChangesDto> result = waitSeconds > 0
+                ? new DeferredResult<>(TimeUnit.SECONDS.toMillis(waitSeconds))
+                : new DeferredResult<>();
+        if (!changes.getChanges().isEmpty() || waitSeconds == 0) {
+            result.setResult(changes);
+            return result;
+        }
+        
+        Waiter waiter = new Waiter(since, limit, result);
+        // За время ожидания записи могли появиться без пробуждения (опрос еще не заметил их): ответ читается заново
+        result.onTimeout(() -> {
+            waiters.remove(waiter);
+            try {
+                result.setResult(getChanges(since, limit));
+            } catch (RuntimeException e) {
+                result.setErrorResult(e);
+            }
+        });
+        result.onCompletion(() -> waiters.remove(waiter));
+        waiters.add(waiter);
+        // Запись могла произойти между чтением ленты и постановкой в ожидание
+        if (appends.get() != appendsBefore) {
+            wake(waiter);
+        }
+        return result;
+    }
+    
+    // Порция изменений после токена с текущим состоянием измененных книг
+    public BookChangesDto getChanges(long since, int limit) {
+        return readOnlyTransaction.execute(status -> {
+            List<BookChange> rows = changeRepository.findBySeqGreaterThanOrderBySeqAsc(since,
+                    PageRequest.ofSize(limit + 1));
+            boolean hasMore = rows.size() > limit;
+            if (hasMore) {
+                rows = rows.subList(0, limit);
+            }
+            
+            List<Long> upsertIds = rows.stream()
+                    .filter(row -> row.getChangeType() == BookChangeKind.UPSERT)
+                    .map(BookChange::getBookId)
+                    .toList();
+            Map<Long, BookDto> books = bookRepository.findAllById(upsertIds).stream()
+                    .map(BookService::convertToDto)
+                    .collect(Collectors.toMap(BookDto::getId, Function.identity()));
+            
+            List<BookChangeDto> changes = new ArrayList<>(rows.size());
+            for (BookChange row : rows) {
+                if (row.getChangeType() == BookChangeKind.UPSERT) {
+                    BookDto book = books.get(row.getBookId());
+                    // Книга уже удалена: ее DELETE придет следующей записью ленты
+                    if (book != null) {
+                        changes.add(new BookChangeDto(row.getSeq(), row.getChangeType(), row.getBookId(), book));
+                    }
+                } else {
+                    changes.add(new BookChangeDto(row.getSeq(), row.getChangeType(), row.getBookId(), null));
+                }
+            }
+            long nextSince = rows.isEmpty() ? since : rows.get(rows.size() - 1).getSeq();
+            return new BookChangesDto(changes, nextSince, hasMore);
+        });
+    }
+    
+    // Новые изменения зафиксированы на этом экземпляре: ответить ожидающим запросам сразу
+    @TransactionalEventListener
+    public void onChangesAppended(BookChangesAppendedEvent event) {
+        appends.incrementAndGet();
+        wakeUpTo(event.lastSeq());
+    }
+    
+    // Ленту пишет экземпляр, держащий блокировку доставки outbox: остальные замечают новые записи опросом
+    @Scheduled(fixedDelayString = "${books.changes.poll-interval-ms:500}")
+    public void pollChanges() {
+        if (!waiters.isEmpty()) {
+            wakeUpTo(changeRepository.findMaxSeq());
+        }
+    }
+    
+    private void wakeUpTo(long lastSeq) {
+        for (Waiter waiter : waiters) {
+            if (lastSeq > waiter.since()) {
+                wake(waiter);
+            }
+        }
+    }
+    
+    private void wake(Waiter waiter) {
+        if (!waiters.remove(waiter)) {
+            return;
+        }
+        taskExecutor.execute(() -> {
+            try {
+                waiter.result().setResult(getChanges(waiter.since(), waiter.limit()));
+            } catch (RuntimeException e) {
+                waiter.result().setErrorResult(e);
+            }
+        });
+    }
+    
+    private record Waiter(long since, int limit, DeferredResult<BookChangesDto> result) {
+    }
+}
@@ -1,73 +1,375 @@
 package com.example.books.service;
 
+import com.example.books.cache.BookCache;
+import com.example.books.cache.IsbnBloomFilter;
+import com.example.books.dto.BatchCreateResultDto;
+import com.example.books.dto.BatchItemResultDto;
 import com.example.books.dto.BookDto;
+import com.example.books.dto.BookScrollDto;
+import com.example.books.dto.BulkStatusChangeDto;
+import com.example.books.dto.BulkStatusChangeResultDto;
 import com.example.books.dto.CreateBookDto;
+import com.example.books.event.BookChangedEvent;
+import com.example.books.event.BookStatusBulkChangedEvent;
+import com.example.books.event.BooksClearedEvent;
 import com.example.books.exception.BookAlreadyExistsException;
+import com.example.books.exception.BookConflictException;
 import com.example.books.exception.BookNotFoundException;
+import com.example.books.exception.BookValidationException;
+import com.example.books.exception.IllegalStatusTransitionException;
+import com.example.books.exception.InvalidRequestParameterException;
 import com.example.books.model.Book;
 import com.example.books.model.BookStatus;
+import com.example.books.repository.BookFilter;
+import com.example.books.repository.BookIdStatus;
+import com.example.books.repository.BookIdStatusIsbn;
 import com.example.books.repository.BookRepository;
+import com.example.books.repository.BookStatusIsbn;
+import com.example.books.repository.BookSpecifications;
+import com.example.books.search.BookSearchIndex;
+import com.example.books.search.BookSearchIndex.SearchField;
+import com.example.books.statistics.BookStatisticsTracker;
+import com.example.books.validation.Isbns;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class BookService {
     
+    // Ограничения размера порции для keyset-пагинации
+    private static final int MAX_SCROLL_SIZE = 1000;
+    private static final String CURSOR_PREFIX = "id:";
+    
+    // Книги пакетной загрузки сохраняются порциями, каждая в своей транзакции (кратно hibernate.jdbc.batch_size)
+    private static final int BATCH_CHUNK_SIZE = 500;
+    
+    // Максимальное число книг в одном запросе пакетной загрузки
+    private static final int MAX_BATCH_SIZE = 10000;
+    
+    private static final int MAX_CHUNK_SIZE = 10000;
+    
+    // Поля, которые можно запросить параметром fields (в порядке вывода)
+    private static final List<String> SELECTABLE_FIELDS = List.of("id", "title", "author", "description",
+            "publicationYear", "pages", "isbn", "status", "createdAt", "updatedAt", "version");
+    
+    // Поля, которые можно менять через PATCH
+    private static final Set<String> PATCHABLE_FIELDS =
+            Set.of("title", "author", "description", "publicationYear", "pages", "isbn", "status");
+    
     private final BookRepository bookRepository;
     
+    private final BookSearchIndex searchIndex;
+    
+    private final BookCache bookCache;
+    
+    private final BookStatisticsTracker statisticsTracker;
+    
+    private final IsbnBloomFilter isbnFilter;
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final Validator validator;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     @Autowired
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository, BookSearchIndex searchIndex, BookCache bookCache,
+                       BookStatisticsTracker statisticsTracker, IsbnBloomFilter isbnFilter,
+                       ApplicationEventPublisher eventPublisher, Validator validator,
+                       PlatformTransactionManager transactionManager) {
         this.bookRepository = bookRepository;
+        this.searchIndex = searchIndex;
+        this.bookCache = bookCache;
+        this.statisticsTracker = statisticsTracker;
+        this.isbnFilter = isbnFilter;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
     
     // Получить все книги
     @Transactional(readOnly = true)
     public List<BookDto> getAllBooks() {
         return bookRepository.findAll().stream()
-                .map(this::convertToDto)
+                .map(BookService::convertToDto)
                 .collect(Collectors.toList());
     }
     
+    // Получить все книги, только указанные поля
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllBooks(String fields) {
+        return bookRepository.findFields(parseFields(fields), BookSpecifications.all(), Pageable.unpaged()).getContent();
+    }
+    
+    // Потоковая выгрузка всех книг: каждая строка конвертируется и сразу отсоединяется от контекста
+    @Transactional(readOnly = true)
+    public void streamAllBooks(Consumer<BookDto> consumer) {
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            books.forEach(book -> {
+                consumer.accept(convertToDto(book));
+                entityManager.detach(book);
+            });
+        }
+    }
+    
     // Получить все книги с пагинацией
     @Transactional(readOnly = true)
     public Page<BookDto> getAllBooks(Pageable pageable) {
         return bookRepository.findAll(pageable)
-                .map(this::convertToDto);
+                .map(BookService::convertToDto);
     }
     
-    // Получить книгу по ID
+    // Получить книги с пагинацией, только указанные поля
     @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getAllBooks(Pageable pageable, String fields) {
+        return bookRepository.findFields(parseFields(fields), BookSpecifications.all(), pageable);
+    }
+    
+    // Keyset-пагинация: стоимость запроса не зависит от глубины страницы
+    @Transactional(readOnly = true)
+    public BookScrollDto scrollBooks(String after, int size, BookStatus status, String author) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new InvalidRequestParameterException("Размер порции должен быть от 1 до " + MAX_SCROLL_SIZE);
+        }
+        
+        long afterId = decodeCursor(after);
+        Pageable limit = PageRequest.ofSize(size);
+        boolean byAuthor = author != null && !author.isBlank();
+        
+        Slice<Book> slice;
+        if (status != null && byAuthor) {
+            slice = bookRepository.findByStatusAndAuthorContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+                    status, author, afterId, limit);
+        } else if (status != null) {
+            slice = bookRepository.findByStatusAndIdGreaterThanOrderByIdAsc(status, afterId, limit);
+        } else if (byAuthor) {
+            slice = bookRepository.findByAuthorContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(author, afterId, limit);
+        } else {
+            slice = bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, limit);
+        }
+        
+        List<BookDto> content = slice.getContent().stream()
+                .map(BookService::convertToDto)
+                .collect(Collectors.toList());
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? encodeCursor(content.get(content.size() - 1).getId())
+                : null;
+        return new BookScrollDto(content, content.size(), slice.hasNext(), nextCursor);
+    }
+    
+    // Получить книгу по ID (через кэш; транзакция открывается только при промахе)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public BookDto getBookById(Long id) {
-        Book book = bookRepository.findById(id)
+        return bookCache.get(id, this::loadBook);
+    }
+    
+    // Версия книги для ETag: из кэша, а при промахе - запросом одной колонки
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Long getBookVersion(Long id) {
+        BookDto cached = bookCache.getIfPresent(id);
+        if (cached != null) {
+            return cached.getVersion();
+        }
+        return bookRepository.findVersionById(id)
                 .orElseThrow(() -> new BookNotFoundException("Книга с ID " + id + " не найдена"));
-        return convertToDto(book);
+    }
+    
+    // Статистика кэша книг
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Long> getCacheStatistics() {
+        return bookCache.getStatistics();
     }
     
     // Создать новую книгу
     public BookDto createBook(CreateBookDto createBookDto) {
-        // Проверяем, не существует ли уже книга с таким ISBN
-        if (createBookDto.getIsbn() != null && !createBookDto.getIsbn().isEmpty()) {
-            if (bookRepository.existsByIsbn(createBookDto.getIsbn())) {
+        // Проверяем, не существует ли уже книга с таким ISBN (сравниваются канонические ISBN-13)
+        String isbn = Isbns.normalize(createBookDto.getIsbn());
+        if (isbn != null && !isbn.isEmpty()) {
+            if (isbnExists(isbn)) {
                 throw new BookAlreadyExistsException("Книга с ISBN " + createBookDto.getIsbn() + " уже существует");
             }
         }
         
         Book book = convertToEntity(createBookDto);
-        book.setCreatedAt(LocalDate.now());
-        book.setUpdatedAt(LocalDate.now());
         
-        Book savedBook = bookRepository.save(book);
-        return convertToDto(savedBook);
+        // Окончательную проверку уникальности выполняет ограничение UNIQUE в БД
+        Book savedBook;
+        try {
+            savedBook = bookRepository.saveAndFlush(book);
+        } catch (DataIntegrityViolationException e) {
+            throw new BookAlreadyExistsException("Книга с ISBN " + createBookDto.getIsbn() + " уже существует", e);
+        }
+        BookDto created = convertToDto(savedBook);
+        eventPublisher.publishEvent(BookChangedEvent.created(created));
+        return created;
+    }
+    
+    // Пакетное создание книг: проверка ISBN одним запросом на порцию и пакетная вставка через JDBC batch
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchCreateResultDto createBooks(List<CreateBookDto> createBookDtos) {
+        validateBatch(createBookDtos);
+        BatchItemResultDto[] results = new BatchItemResultDto[createBookDtos.size()];
+        Set<String> acceptedIsbns = new HashSet<>();
+        
+        for (int from = 0; from < createBookDtos.size(); from += BATCH_CHUNK_SIZE) {
+            int offset = from;
+            List<CreateBookDto> chunk = createBookDtos.subList(from, Math.min(from + BATCH_CHUNK_SIZE, createBookDtos.size()));
+            Set<String> chunkIsbns = new HashSet<>();
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        createChunk(chunk, offset, acceptedIsbns, chunkIsbns, results));
+                acceptedIsbns.addAll(chunkIsbns);
+            } catch (DataIntegrityViolationException e) {
+                // Фильтр Блума отсеял ISBN, который в БД уже есть (запись другого экземпляра или еще не учтенная
+                // перестроением): порция повторяется по одной книге, чтобы нарушение UNIQUE отклонило только свою строку
+                createChunkByRow(chunk, offset, acceptedIsbns, results);
+            } catch (RuntimeException e) {
+                // Порция откатилась целиком: все ее книги, прошедшие проверки, считаются неудачными
+                for (int i = 0; i < chunk.size(); i++) {
+                    BatchItemResultDto result = results[offset + i];
+                    if (result == null || result.getOutcome() == BatchItemResultDto.Outcome.CREATED) {
+                        results[offset + i] = BatchItemResultDto.rejected(offset + i, BatchItemResultDto.Outcome.FAILED,
+                                chunk.get(i).getIsbn(), "Ошибка при сохранении: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                    }
+                }
+            }
+        }
+        return new BatchCreateResultDto(Arrays.asList(results));
+    }
+    
+    // Повтор откатившейся порции по одной книге в отдельной транзакции; решения, принятые без записи
+    // (INVALID, DUPLICATE), сохраняются
+    private void createChunkByRow(List<CreateBookDto> chunk, int offset, Set<String> acceptedIsbns,
+                                  BatchItemResultDto[] results) {
+        for (int i = 0; i < chunk.size(); i++) {
+            int position = offset + i;
+            BatchItemResultDto result = results[position];
+            if (result != null && result.getOutcome() != BatchItemResultDto.Outcome.CREATED) {
+                continue;
+            }
+            results[position] = null;
+            List<CreateBookDto> row = chunk.subList(i, i + 1);
+            Set<String> rowIsbns = new HashSet<>();
+            String isbn = row.get(0).getIsbn();
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        createChunk(row, position, acceptedIsbns, rowIsbns, results));
+                acceptedIsbns.addAll(rowIsbns);
+            } catch (DataIntegrityViolationException e) {
+                results[position] = BatchItemResultDto.rejected(position, BatchItemResultDto.Outcome.DUPLICATE,
+                        isbn, "Книга с ISBN " + isbn + " уже существует");
+            } catch (RuntimeException e) {
+                results[position] = BatchItemResultDto.rejected(position, BatchItemResultDto.Outcome.FAILED,
+                        isbn, "Ошибка при сохранении: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+    }
+    
+    // Пакет проверяется до записи: элементы null и превышение размера отклоняют запрос целиком
+    private void validateBatch(List<CreateBookDto> createBookDtos) {
+        if (createBookDtos.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestParameterException("Размер пакета не должен превышать " + MAX_BATCH_SIZE + " книг");
+        }
+        for (int i = 0; i < createBookDtos.size(); i++) {
+            if (createBookDtos.get(i) == null) {
+                throw new InvalidRequestParameterException("Элемент пакета с индексом " + i + " не должен быть null");
+            }
+        }
+    }
+    
+    private void createChunk(List<CreateBookDto> chunk, int offset, Set<String> acceptedIsbns,
+                             Set<String> chunkIsbns, BatchItemResultDto[] results) {
+        Set<String> candidateIsbns = new HashSet<>();
+        for (CreateBookDto dto : chunk) {
+            if (dto.getIsbn() != null && !dto.getIsbn().isEmpty()) {
+                // В запрос попадают только ISBN, которые фильтр не смог отсеять
+                String isbn = Isbns.normalize(dto.getIsbn());
+                if (isbnFilter.mightContain(isbn)) {
+                    candidateIsbns.add(isbn);
+                }
+            }
+        }
+        Set<String> existingIsbns = candidateIsbns.isEmpty()
+                ? Set.of()
+                : new HashSet<>(bookRepository.findExistingIsbns(candidateIsbns));
+        
+        List<Book> books = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            CreateBookDto dto = chunk.get(i);
+            int position = offset + i;
+            
+            Set<ConstraintViolation<CreateBookDto>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                results[position] = BatchItemResultDto.rejected(position, BatchItemResultDto.Outcome.INVALID,
+                        dto.getIsbn(), message);
+                continue;
+            }
+            
+            String isbn = Isbns.normalize(dto.getIsbn());
+            if (isbn != null && !isbn.isEmpty()
+                    && (existingIsbns.contains(isbn) || acceptedIsbns.contains(isbn) || !chunkIsbns.add(isbn))) {
+                results[position] = BatchItemResultDto.rejected(position, BatchItemResultDto.Outcome.DUPLICATE,
+                        dto.getIsbn(), "Книга с ISBN " + dto.getIsbn() + " уже существует");
+                continue;
+            }
+            
+            books.add(convertToEntity(dto));
+            positions.add(position);
+        }
+        
+        bookRepository.saveAll(books);
+        // flush через репозиторий: нарушение UNIQUE переводится в DataIntegrityViolationException
+        bookRepository.flush();
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            int position = positions.get(i);
+            results[position] = BatchItemResultDto.created(position, book.getId(), book.getIsbn());
+            eventPublisher.publishEvent(BookChangedEvent.created(convertToDto(book)));
+        }
+        entityManager.clear();
     }
     
     // Обновить книгу
@@ -76,48 +378,195 @@ public class BookService {
                 .orElseThrow(() -> new BookNotFoundException("Книга с ID " + id + " не найдена"));
         
         // Проверяем ISBN на уникальность, если он изменился
-        if (updateBookDto.getIsbn() != null && !updateBookDto.getIsbn().isEmpty()) {
-            if (!updateBookDto.getIsbn().equals(existingBook.getIsbn()) && 
-                bookRepository.existsByIsbn(updateBookDto.getIsbn())) {
+        String isbn = Isbns.normalize(updateBookDto.getIsbn());
+        if (isbn != null && !isbn.isEmpty()) {
+            if (!isbn.equals(existingBook.getIsbn()) && isbnExists(isbn)) {
                 throw new BookAlreadyExistsException("Книга с ISBN " + updateBookDto.getIsbn() + " уже существует");
             }
         }
         
+        BookStatus previousStatus = existingBook.getStatus();
+        String previousIsbn = existingBook.getIsbn();
+        
         // Обновляем поля
         existingBook.setTitle(updateBookDto.getTitle());
         existingBook.setAuthor(updateBookDto.getAuthor());
         existingBook.setDescription(updateBookDto.getDescription());
         existingBook.setPublicationYear(updateBookDto.getPublicationYear());
         existingBook.setPages(updateBookDto.getPages());
-        existingBook.setIsbn(updateBookDto.getIsbn());
+        existingBook.setIsbn(isbn);
         existingBook.setStatus(updateBookDto.getStatus());
-        existingBook.setUpdatedAt(LocalDate.now());
         
-        Book updatedBook = bookRepository.save(existingBook);
-        return convertToDto(updatedBook);
+        // Сброс сразу, чтобы версия и дата изменения в ответе были актуальными
+        Book updatedBook;
+        try {
+            updatedBook = bookRepository.saveAndFlush(existingBook);
+        } catch (DataIntegrityViolationException e) {
+            throw new BookAlreadyExistsException("Книга с ISBN " + updateBookDto.getIsbn() + " уже существует", e);
+        }
+        BookDto updated = convertToDto(updatedBook);
+        eventPublisher.publishEvent(BookChangedEvent.updated(updated, previousStatus, previousIsbn));
+        return updated;
+    }
+    
+    // Проверка существования ISBN: отрицательный ответ фильтра Блума избавляет от запроса к БД
+    private boolean isbnExists(String isbn) {
+        if (!isbnFilter.mightContain(isbn)) {
+            return false;
+        }
+        boolean exists = bookRepository.existsByIsbn(isbn);
+        if (!exists && isbnFilter.isReady()) {
+            isbnFilter.recordFalsePositive();
+        }
+        return exists;
     }
     
     // Удалить книгу
     public void deleteBook(Long id) {
-        if (!bookRepository.existsById(id)) {
-            throw new BookNotFoundException("Книга с ID " + id + " не найдена");
+        Book book = bookRepository.findById(id)
+                .orElseThrow(() -> new BookNotFoundException("Книга с ID " + id + " не найдена"));
+        bookRepository.delete(book);
+        eventPublisher.publishEvent(BookChangedEvent.deleted(id, book.getStatus(), book.getIsbn()));
+    }
+    
+    // Удалить все книги одним запросом DELETE
+    public long deleteAllBooks() {
+        int deleted = bookRepository.bulkDeleteAll();
+        eventPublisher.publishEvent(new BooksClearedEvent(deleted));
+        return deleted;
+    }
+    
+    // Удалить все книги порциями по chunkSize ID за запрос, каждая порция в своей транзакции
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long deleteAllBooks(int chunkSize) {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new InvalidRequestParameterException("Размер порции должен быть от 1 до " + MAX_CHUNK_SIZE);
+        }
+        
+        long deleted = 0;
+        long afterId = 0;
+        while (true) {
+            long lastId = afterId;
+            List<BookIdStatusIsbn> rows = transactionTemplate.execute(status -> {
+                List<BookIdStatusIsbn> chunk = bookRepository.findIdStatusIsbnsAfter(lastId, PageRequest.ofSize(chunkSize));
+                if (!chunk.isEmpty()) {
+                    bookRepository.bulkDeleteByIds(chunk.stream().map(BookIdStatusIsbn::getId).toList());
+                    // ISBN в событии нужен фильтру Блума, чтобы снять запись удаленной книги
+                    chunk.forEach(row -> eventPublisher.publishEvent(
+                            BookChangedEvent.deleted(row.getId(), row.getStatus(), row.getIsbn())));
+                }
+                return chunk;
+            });
+            if (rows == null || rows.isEmpty()) {
+                return deleted;
+            }
+            deleted += rows.size();
+            afterId = rows.get(rows.size() - 1).getId();
         }
-        bookRepository.deleteById(id);
+    }
+    
+    // Массовая смена статуса: выборка (id, status) порциями по ключу и один условный UPDATE на каждый прежний статус.
+    // Каждая порция в своей транзакции; книги, статус которых успел измениться, пропускаются
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkStatusChangeResultDto changeBooksStatus(BulkStatusChangeDto request, int chunkSize) {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new InvalidRequestParameterException("Размер порции должен быть от 1 до " + MAX_CHUNK_SIZE);
+        }
+        if (request.getYearFrom() != null && request.getYearTo() != null
+                && request.getYearFrom() > request.getYearTo()) {
+            throw new InvalidRequestParameterException("Начальный год не может быть больше конечного");
+        }
+        
+        BookStatus target = request.getTargetStatus();
+        BookFilter filter = new BookFilter(null, request.getStatus(), request.getAuthor(),
+                request.getYearFrom(), request.getYearTo());
+        List<Long> ids = request.getIds() == null ? null : request.getIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+        // Без списка ID и без фильтра запрос затронул бы весь каталог
+        boolean hasFilter = request.getStatus() != null
+                || (request.getAuthor() != null && !request.getAuthor().isBlank())
+                || request.getYearFrom() != null || request.getYearTo() != null;
+        if ((ids == null || ids.isEmpty()) && !hasFilter) {
+            throw new InvalidRequestParameterException("Укажите непустой список ID или хотя бы один фильтр (статус, автор, годы)");
+        }
+        
+        Map<BookStatus, Long> changedFrom = new EnumMap<>(BookStatus.class);
+        long[] totals = new long[3]; // matched, unchanged, conflicts
+        LocalDate today = LocalDate.now();
+        int offset = 0;
+        long afterId = 0;
+        while (true) {
+            BookFilter chunkFilter = filter;
+            if (ids != null) {
+                if (offset >= ids.size()) {
+                    break;
+                }
+                List<Long> slice = ids.subList(offset, Math.min(offset + chunkSize, ids.size()));
+                offset += slice.size();
+                chunkFilter = filter.withIds(slice);
+            }
+            BookFilter currentFilter = chunkFilter;
+            long lastId = afterId;
+            List<BookIdStatus> rows = transactionTemplate.execute(status -> {
+                List<BookIdStatus> chunk = bookRepository.findIdStatuses(currentFilter, lastId, chunkSize);
+                Map<BookStatus, List<Long>> groups = new EnumMap<>(BookStatus.class);
+                for (BookIdStatus row : chunk) {
+                    if (row.getStatus() == target) {
+                        totals[1]++;
+                    } else {
+                        groups.computeIfAbsent(row.getStatus(), key -> new ArrayList<>()).add(row.getId());
+                    }
+                }
+                
+                Map<BookStatus, Long> changed = new EnumMap<>(BookStatus.class);
+                List<Long> touched = new ArrayList<>();
+                for (Map.Entry<BookStatus, List<Long>> group : groups.entrySet()) {
+                    int updated = bookRepository.bulkCompareAndSetStatus(group.getValue(), group.getKey(), target, today);
+                    totals[2] += group.getValue().size() - updated;
+                    if (updated > 0) {
+                        changed.put(group.getKey(), (long) updated);
+                        touched.addAll(group.getValue());
+                    }
+                }
+                if (!changed.isEmpty()) {
+                    changed.forEach((previous, count) -> changedFrom.merge(previous, count, Long::sum));
+                    eventPublisher.publishEvent(new BookStatusBulkChangedEvent(target, changed, touched));
+                }
+                totals[0] += chunk.size();
+                return chunk;
+            });
+            if (ids == null) {
+                if (rows == null || rows.isEmpty()) {
+                    break;
+                }
+                afterId = rows.get(rows.size() - 1).getId();
+            }
+        }
+        return new BulkStatusChangeResultDto(target, totals[0], totals[1], totals[2], changedFrom);
     }
     
     // Поиск книг по названию
     @Transactional(readOnly = true)
     public List<BookDto> searchBooksByTitle(String title) {
+        if (searchIndex.isReady()) {
+            return findRanked(searchIndex.search(title, SearchField.TITLE));
+        }
         return bookRepository.findByTitleContainingIgnoreCase(title).stream()
-                .map(this::convertToDto)
+                .map(BookService::convertToDto)
                 .collect(Collectors.toList());
     }
     
     // Поиск книг по автору
     @Transactional(readOnly = true)
     public List<BookDto> searchBooksByAuthor(String author) {
+        if (searchIndex.isReady()) {
+            return findRanked(searchIndex.search(author, SearchField.AUTHOR));
+        }
         return bookRepository.findByAuthorContainingIgnoreCase(author).stream()
-                .map(this::convertToDto)
+                .map(BookService::convertToDto)
                 .collect(Collectors.toList());
     }
     
@@ -125,7 +574,7 @@ public class BookService {
     @Transactional(readOnly = true)
     public List<BookDto> getBooksByStatus(BookStatus status) {
         return bookRepository.findByStatus(status).stream()
-                .map(this::convertToDto)
+                .map(BookService::convertToDto)
                 .collect(Collectors.toList());
     }
     
@@ -133,44 +582,288 @@ public class BookService {
     @Transactional(readOnly = true)
     public List<BookDto> getAvailableBooks() {
         return bookRepository.findAvailableBooks().stream()
-                .map(this::convertToDto)
+                .map(BookService::convertToDto)
                 .collect(Collectors.toList());
     }
     
     // Поиск по ключевым словам
     @Transactional(readOnly = true)
     public List<BookDto> searchBooksByKeyword(String keyword) {
+        if (searchIndex.isReady()) {
+            return findRanked(searchIndex.search(keyword,
+                    SearchField.TITLE, SearchField.AUTHOR, SearchField.DESCRIPTION));
+        }
         return bookRepository.findByKeyword(keyword).stream()
-                .map(this::convertToDto)
+                .map(BookService::convertToDto)
                 .collect(Collectors.toList());
     }
     
-    // Изменить статус книги
+    // Поиск книг по названию, только указанные поля
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> searchBooksByTitle(String title, String fields) {
+        Set<String> selected = parseFields(fields);
+        if (searchIndex.isReady()) {
+            return findRankedFields(searchIndex.search(title, SearchField.TITLE), selected);
+        }
+        return findFields(selected, BookSpecifications.titleContains(title));
+    }
+    
+    // Поиск книг по автору, только указанные поля
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> searchBooksByAuthor(String author, String fields) {
+        Set<String> selected = parseFields(fields);
+        if (searchIndex.isReady()) {
+            return findRankedFields(searchIndex.search(author, SearchField.AUTHOR), selected);
+        }
+        return findFields(selected, BookSpecifications.authorContains(author));
+    }
+    
+    // Поиск книг по статусу, только указанные поля
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getBooksByStatus(BookStatus status, String fields) {
+        return findFields(parseFields(fields), BookSpecifications.hasStatus(status));
+    }
+    
+    // Поиск доступных книг, только указанные поля
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAvailableBooks(String fields) {
+        return findFields(parseFields(fields), BookSpecifications.hasStatus(BookStatus.AVAILABLE));
+    }
+    
+    // Поиск по ключевым словам, только указанные поля
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> searchBooksByKeyword(String keyword, String fields) {
+        Set<String> selected = parseFields(fields);
+        if (searchIndex.isReady()) {
+            return findRankedFields(searchIndex.search(keyword,
+                    SearchField.TITLE, SearchField.AUTHOR, SearchField.DESCRIPTION), selected);
+        }
+        return findFields(selected, BookSpecifications.keyword(keyword));
+    }
+    
+    // Переход статуса from -> to одним условным UPDATE без блокировок: из конкурирующих запросов выигрывает один
+    public BookDto transitionBookStatus(Long id, BookStatus from, BookStatus to) {
+        if (!from.canTransitionTo(to)) {
+            throw new IllegalStatusTransitionException("Переход из статуса " + from + " в статус " + to + " недопустим");
+        }
+        
+        if (bookRepository.compareAndSetStatus(id, from, to, LocalDate.now()) == 0) {
+            BookStatus current = bookRepository.findStatusById(id)
+                    .orElseThrow(() -> new BookNotFoundException("Книга с ID " + id + " не найдена"));
+            throw new BookConflictException("Книга с ID " + id + " находится в статусе " + current
+                    + ", ожидался статус " + from);
+        }
+        
+        BookDto updated = loadBook(id);
+        eventPublisher.publishEvent(BookChangedEvent.updated(updated, from));
+        return updated;
+    }
+    
+    // Частичное обновление (JSON Merge Patch): один UPDATE только по переданным полям без загрузки сущности
+    public BookDto patchBook(Long id, Map<String, Object> patch, Long expectedVersion) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : patch.entrySet()) {
+            String field = entry.getKey();
+            if (!PATCHABLE_FIELDS.contains(field)) {
+                errors.put(field, "Поле не может быть изменено");
+                continue;
+            }
+            Object value;
+            try {
+                value = convertPatchValue(field, entry.getValue());
+            } catch (IllegalArgumentException e) {
+                errors.put(field, "Некорректное значение поля");
+                continue;
+            }
+            for (ConstraintViolation<CreateBookDto> violation : validator.validateValue(CreateBookDto.class, field, value)) {
+                errors.put(field, violation.getMessage());
+            }
+            if (value == null && "status".equals(field)) {
+                errors.put(field, "Статус не может быть пустым");
+            }
+            changes.put(field, value);
+        }
+        if (!errors.isEmpty()) {
+            throw new BookValidationException(errors);
+        }
+        if (changes.isEmpty()) {
+            return loadBook(id);
+        }
+        
+        if (changes.get("isbn") instanceof String value) {
+            String isbn = Isbns.normalize(value);
+            if (!isbn.isEmpty() && isbnFilter.mightContain(isbn) && bookRepository.existsByIsbnAndIdNot(isbn, id)) {
+                throw new BookAlreadyExistsException("Книга с ISBN " + value + " уже существует");
+            }
+            changes.put("isbn", isbn);
+        }
+        
+        // Если меняются статус или ISBN, прежние значения читаются одним запросом и входят в условие UPDATE —
+        // так они известны точно (прежний ISBN нужен фильтру Блума)
+        Map<String, Object> previous = new LinkedHashMap<>();
+        if (changes.containsKey("status") || changes.containsKey("isbn")) {
+            BookStatusIsbn current = bookRepository.findStatusAndIsbnById(id)
+                    .orElseThrow(() -> new BookNotFoundException("Книга с ID " + id + " не найдена"));
+            if (changes.containsKey("status")) {
+                previous.put("status", current.getStatus());
+            }
+            if (changes.containsKey("isbn")) {
+                previous.put("isbn", current.getIsbn());
+            }
+        }
+        
+        int patchedRows;
+        try {
+            patchedRows = bookRepository.patch(id, changes, expectedVersion, previous);
+        } catch (DataIntegrityViolationException e) {
+            throw new BookAlreadyExistsException("Книга с ISBN " + changes.get("isbn") + " уже существует", e);
+        }
+        if (patchedRows == 0) {
+            if (!bookRepository.existsById(id)) {
+                throw new BookNotFoundException("Книга с ID " + id + " не найдена");
+            }
+            throw new BookConflictException("Книга с ID " + id + " была изменена другим запросом");
+        }
+        
+        BookDto patched = loadBook(id);
+        BookStatus eventStatus = previous.containsKey("status") ? (BookStatus) previous.get("status") : patched.getStatus();
+        eventPublisher.publishEvent(changes.containsKey("isbn")
+                ? BookChangedEvent.updated(patched, eventStatus, (String) previous.get("isbn"))
+                : BookChangedEvent.updated(patched, eventStatus));
+        return patched;
+    }
+    
+    // Изменить статус книги: один условный UPDATE вместо загрузки и сохранения всей сущности
     public BookDto changeBookStatus(Long id, BookStatus newStatus) {
-        Book book = bookRepository.findById(id)
+        BookStatus previousStatus = bookRepository.findStatusById(id)
                 .orElseThrow(() -> new BookNotFoundException("Книга с ID " + id + " не найдена"));
         
-        book.setStatus(newStatus);
-        book.setUpdatedAt(LocalDate.now());
+        if (bookRepository.compareAndSetStatus(id, previousStatus, newStatus, LocalDate.now()) == 0) {
+            throw new BookConflictException("Статус книги с ID " + id + " был изменен другим запросом");
+        }
         
-        Book updatedBook = bookRepository.save(book);
-        return convertToDto(updatedBook);
+        BookDto updated = loadBook(id);
+        eventPublisher.publishEvent(BookChangedEvent.updated(updated, previousStatus));
+        return updated;
     }
     
-    // Получить статистику
-    @Transactional(readOnly = true)
+    // Получить статистику (из счетчиков в памяти, без запросов к БД)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Long> getBookStatistics() {
-        Map<String, Long> statistics = new HashMap<>();
-        statistics.put("total", bookRepository.count());
-        statistics.put("available", bookRepository.countByStatus(BookStatus.AVAILABLE));
-        statistics.put("borrowed", bookRepository.countByStatus(BookStatus.BORROWED));
-        statistics.put("reserved", bookRepository.countByStatus(BookStatus.RESERVED));
-        statistics.put("maintenance", bookRepository.countByStatus(BookStatus.MAINTENANCE));
-        return statistics;
+        return statisticsTracker.snapshot();
+    }
+    
+    private BookDto loadBook(Long id) {
+        Book book = bookRepository.findById(id)
+                .orElseThrow(() -> new BookNotFoundException("Книга с ID " + id + " не найдена"));
+        return convertToDto(book);
+    }
+    
+    // Загрузка книг по ID из индекса с сохранением порядка релевантности
+    private List<BookDto> findRanked(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> booksById = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .map(BookService::convertToDto)
+                .collect(Collectors.toList());
+    }
+    
+    private List<Map<String, Object>> findFields(Set<String> fields, Specification<Book> specification) {
+        return bookRepository.findFields(fields, specification, Pageable.unpaged()).getContent();
+    }
+    
+    // Выборка полей книг по ID из поискового индекса с сохранением порядка релевантности
+    private List<Map<String, Object>> findRankedFields(List<Long> ids, Set<String> fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Object, Map<String, Object>> rowsById = findFields(fields, BookSpecifications.idIn(ids)).stream()
+                .collect(Collectors.toMap(row -> row.get("id"), Function.identity()));
+        return ids.stream()
+                .map(rowsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+    
+    // Разбор параметра fields: список полей через запятую, id включается всегда
+    static Set<String> parseFields(String fields) {
+        Set<String> requested = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!SELECTABLE_FIELDS.contains(name)) {
+                throw new InvalidRequestParameterException("Неизвестное поле: " + name
+                        + ". Допустимые поля: " + String.join(", ", SELECTABLE_FIELDS));
+            }
+            requested.add(name);
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : SELECTABLE_FIELDS) {
+            if (field.equals("id") || requested.contains(field)) {
+                selected.add(field);
+            }
+        }
+        return selected;
+    }
+    
+    // Приведение значения из JSON к типу поля сущности
+    private static Object convertPatchValue(String field, Object value) {
+        if (value == null) {
+            return null;
+        }
+        switch (field) {
+            case "publicationYear", "pages" -> {
+                if (!(value instanceof Integer number)) {
+                    throw new IllegalArgumentException(field);
+                }
+                return number;
+            }
+            case "status" -> {
+                if (!(value instanceof String name)) {
+                    throw new IllegalArgumentException(field);
+                }
+                return BookStatus.valueOf(name);
+            }
+            default -> {
+                if (!(value instanceof String text)) {
+                    throw new IllegalArgumentException(field);
+                }
+                return text;
+            }
+        }
+    }
+    
+    // Курсор кодирует последний выданный ID в URL-safe Base64
+    private String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+    
+    private long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new InvalidRequestParameterException("Некорректный курсор: " + cursor);
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestParameterException("Некорректный курсор: " + cursor, e);
+        }
     }
     
-    // Конвертация Entity в DTO
-    private BookDto convertToDto(Book book) {
+    // Конвертация Entity в DTO (видимость пакета — для JMH-бенчмарков)
+    static BookDto convertToDto(Book book) {
         BookDto dto = new BookDto();
         dto.setId(book.getId());
         dto.setTitle(book.getTitle());
@@ -182,19 +875,20 @@ public class BookService {
         dto.setStatus(book.getStatus());
         dto.setCreatedAt(book.getCreatedAt());
         dto.setUpdatedAt(book.getUpdatedAt());
+        dto.setVersion(book.getVersion());
         return dto;
     }
     
-    // Конвертация DTO в Entity
-    private Book convertToEntity(CreateBookDto dto) {
+    // Конвертация DTO в Entity (видимость пакета — для JMH-бенчмарков)
+    static Book convertToEntity(CreateBookDto dto) {
         Book book = new Book();
         book.setTitle(dto.getTitle());
         book.setAuthor(dto.getAuthor());
         book.setDescription(dto.getDescription());
         book.setPublicationYear(dto.getPublicationYear());
         book.setPages(dto.getPages());
-        book.setIsbn(dto.getIsbn());
-        book.setStatus(dto.getStatus());
+        book.setIsbn(Isbns.normalize(dto.getIsbn()));
+        book.setStatus(dto.getStatus() != null ? dto.getStatus() : BookStatus.AVAILABLE);
         return book;
     }
 }
@@ -0,0 +1,110 @@
+package com.example.books.service;
+
+import com.example.books.dto.BookDto;
+import com.example.books.exception.BookNotFoundException;
+import com.example.books.exception.InvalidRequestParameterException;
+import com.example.books.model.BookStatus;
+import com.example.books.reactive.BookRow;
+import com.example.books.reactive.ReactiveBookRepository;
+import com.example.books.repository.BookSpecifications;
+import com.example.books.validation.Isbns;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Неблокирующее чтение книг через R2DBC с тем же контрактом BookDto, что и у BookService.
+// Результаты отдаются потоком: строки читаются из БД по мере запроса подписчиком
+@Service
+public class ReactiveBookService {
+    
+    private final ReactiveBookRepository bookRepository;
+    
+    @Autowired
+    public ReactiveBookService(ReactiveBookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+    
+    // Все книги потоком в порядке ID
+    public Flux<BookDto> getAllBooks() {
+        return bookRepository.findAllByOrderByIdAsc().map(ReactiveBookService::convertToDto);
+    }
+    
+    // Получить книгу по ID
+    public Mono<BookDto> getBookById(Long id) {
+        return bookRepository.findById(id)
+                .map(ReactiveBookService::convertToDto)
+                .switchIfEmpty(Mono.error(() -> new BookNotFoundException("Книга с ID " + id + " не найдена")));
+    }
+    
+    // Получить книгу по ISBN (в любом допустимом написании)
+    public Mono<BookDto> getBookByIsbn(String isbn) {
+        if (!Isbns.isValid(isbn)) {
+            return Mono.error(new InvalidRequestParameterException("Некорректный ISBN: " + isbn));
+        }
+        return bookRepository.findByIsbn(Isbns.normalize(isbn))
+                .map(ReactiveBookService::convertToDto)
+                .switchIfEmpty(Mono.error(() -> new BookNotFoundException("Книга с ISBN " + isbn + " не найдена")));
+    }
+    
+    // Поиск книг по названию
+    public Flux<BookDto> searchBooksByTitle(String title) {
+        return bookRepository.findByTitleContainingIgnoreCaseOrderByIdAsc(title).map(ReactiveBookService::convertToDto);
+    }
+    
+    // Поиск книг по автору
+    public Flux<BookDto> searchBooksByAuthor(String author) {
+        return bookRepository.findByAuthorContainingIgnoreCaseOrderByIdAsc(author).map(ReactiveBookService::convertToDto);
+    }
+    
+    // Поиск книг по ключевым словам в названии или описании
+    public Flux<BookDto> searchBooksByKeyword(String keyword) {
+        return bookRepository.findByKeyword(BookSpecifications.containsPattern(keyword))
+                .map(ReactiveBookService::convertToDto);
+    }
+    
+    // Получить книги по статусу
+    public Flux<BookDto> getBooksByStatus(BookStatus status) {
+        return bookRepository.findByStatusOrderByIdAsc(status).map(ReactiveBookService::convertToDto);
+    }
+    
+    // Получить книги по году издания
+    public Flux<BookDto> getBooksByYear(Integer year) {
+        return bookRepository.findByPublicationYearOrderByIdAsc(year).map(ReactiveBookService::convertToDto);
+    }
+    
+    // Получить книги по диапазону годов
+    public Flux<BookDto> getBooksByYearRange(Integer startYear, Integer endYear) {
+        if (startYear > endYear) {
+            return Flux.error(new InvalidRequestParameterException("Начальный год не может быть больше конечного"));
+        }
+        return bookRepository.findByPublicationYearBetweenOrderByIdAsc(startYear, endYear)
+                .map(ReactiveBookService::convertToDto);
+    }
+    
+    // Книги с количеством страниц не меньше указанного
+    public Flux<BookDto> getBooksByMinPages(Integer minPages) {
+        return bookRepository.findByMinPages(minPages).map(ReactiveBookService::convertToDto);
+    }
+    
+    // Книги с количеством страниц не больше указанного
+    public Flux<BookDto> getBooksByMaxPages(Integer maxPages) {
+        return bookRepository.findByMaxPages(maxPages).map(ReactiveBookService::convertToDto);
+    }
+    
+    static BookDto convertToDto(BookRow row) {
+        BookDto dto = new BookDto();
+        dto.setId(row.getId());
+        dto.setTitle(row.getTitle());
+        dto.setAuthor(row.getAuthor());
+        dto.setDescription(row.getDescription());
+        dto.setPublicationYear(row.getPublicationYear());
+        dto.setPages(row.getPages());
+        dto.setIsbn(row.getIsbn());
+        dto.setStatus(row.getStatus());
+        dto.setCreatedAt(row.getCreatedAt());
+        dto.setUpdatedAt(row.getUpdatedAt());
+        dto.setVersion(row.getVersion());
+        return dto;
+    }
+}
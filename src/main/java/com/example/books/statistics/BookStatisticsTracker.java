@@ -0,0 +1,177 @@
+package com.example.books.statistics;
+
+import com.example.books.event.BookChangeType;
+import com.example.books.event.BookChangedEvent;
+import com.example.books.event.BookStatusBulkChangedEvent;
+import com.example.books.event.BooksClearedEvent;
+import com.example.books.model.BookStatus;
+import com.example.books.repository.BookRepository;
+import com.example.books.repository.StatusCount;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Счетчики книг по статусам в памяти: по LongAdder на статус, обновляются после фиксации записей
+// и периодически сверяются с БД. Сверка не подменяет счетчики, а добавляет к ним расхождение с БД,
+// измеренное в окне, где ни одна транзакция с изменением статуса не фиксировалась и не ждала применения:
+// иначе изменение, уже видимое запросу, но еще не примененное, было бы учтено дважды.
+// Снимок читает счетчики по очереди и может на мгновение не учесть изменение, применяемое в этот момент
+@Component
+public class BookStatisticsTracker {
+
+    // Сколько раз сверка ищет окно без изменений статуса, прежде чем отложиться до следующего запуска
+    private static final int MAX_RECONCILE_ATTEMPTS = 3;
+
+    private final BookRepository bookRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<BookStatus, LongAdder> counters = new EnumMap<>(BookStatus.class);
+
+    // Транзакции с изменением статуса: начатые (событие опубликовано) и завершенные (применены или откачены).
+    // Пока числа равны и не меняются, БД и счетчики отражают одни и те же изменения
+    private final LongAdder started = new LongAdder();
+
+    private final LongAdder completed = new LongAdder();
+
+    private volatile boolean initialized;
+
+    @Autowired
+    public BookStatisticsTracker(BookRepository bookRepository, PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        for (BookStatus status : BookStatus.values()) {
+            counters.put(status, new LongAdder());
+        }
+    }
+
+    // Снимок статистики без обращения к БД (кроме первого вызова до сверки)
+    public Map<String, Long> snapshot() {
+        if (!initialized) {
+            reconcile();
+        }
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        long total = 0;
+        for (BookStatus status : BookStatus.values()) {
+            long count = Math.max(0, counters.get(status).sum());
+            statistics.put(status.name().toLowerCase(Locale.ROOT), count);
+            total += count;
+        }
+        statistics.put("total", total);
+        return statistics;
+    }
+
+    // Сверка со значениями из БД одним запросом GROUP BY status. Расхождение применяется, только если
+    // до и после запроса не было незавершенных транзакций и ни одна не завершилась за время запроса
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${books.statistics.reconcile-interval-ms:60000}",
+               initialDelayString = "${books.statistics.reconcile-interval-ms:60000}")
+    public synchronized void reconcile() {
+        for (int attempt = 1; attempt <= MAX_RECONCILE_ATTEMPTS; attempt++) {
+            // Завершенные читаются раньше начатых: завершение, попавшее в сумму, уже учтено и в начатых
+            long completedBefore = completed.sum();
+            boolean quiet = started.sum() == completedBefore;
+            Map<BookStatus, Long> memory = sums();
+            Map<BookStatus, Long> actual = readOnlyTransaction.execute(status -> loadCounts());
+            long completedAfter = completed.sum();
+            quiet = quiet && started.sum() == completedAfter && completedAfter == completedBefore;
+            // Без первой сверки счетчикам не с чего начинать: расхождение применяется и без тихого окна,
+            // неточность исправит следующая сверка
+            if (quiet || (!initialized && attempt == MAX_RECONCILE_ATTEMPTS)) {
+                for (BookStatus status : BookStatus.values()) {
+                    counters.get(status).add(actual.get(status) - memory.get(status));
+                }
+                initialized = true;
+                return;
+            }
+        }
+    }
+
+    private Map<BookStatus, Long> sums() {
+        Map<BookStatus, Long> sums = new EnumMap<>(BookStatus.class);
+        counters.forEach((status, counter) -> sums.put(status, counter.sum()));
+        return sums;
+    }
+
+    private Map<BookStatus, Long> loadCounts() {
+        Map<BookStatus, Long> actual = new EnumMap<>(BookStatus.class);
+        for (BookStatus status : BookStatus.values()) {
+            actual.put(status, 0L);
+        }
+        List<StatusCount> rows = bookRepository.countGroupByStatus();
+        for (StatusCount row : rows) {
+            actual.put(row.getStatus(), row.getCount());
+        }
+        return actual;
+    }
+
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        BookStatus newStatus = event.type() == BookChangeType.DELETED ? null : event.book().getStatus();
+        BookStatus previousStatus = event.previousStatus();
+        if (previousStatus == newStatus) {
+            return;
+        }
+        afterCommit(() -> {
+            if (previousStatus != null) {
+                counters.get(previousStatus).decrement();
+            }
+            if (newStatus != null) {
+                counters.get(newStatus).increment();
+            }
+        });
+    }
+
+    @EventListener
+    public void onBooksStatusChanged(BookStatusBulkChangedEvent event) {
+        afterCommit(() -> {
+            long changed = 0;
+            for (Map.Entry<BookStatus, Long> entry : event.changedByPreviousStatus().entrySet()) {
+                counters.get(entry.getKey()).add(-entry.getValue());
+                changed += entry.getValue();
+            }
+            counters.get(event.newStatus()).add(changed);
+        });
+    }
+
+    @EventListener
+    public void onBooksCleared(BooksClearedEvent event) {
+        afterCommit(() -> counters.values().forEach(LongAdder::reset));
+    }
+
+    // Изменение применяется после фиксации; от публикации события до завершения транзакции она считается
+    // незавершенной, чтобы сверка не прочитала из БД изменение, которое счетчики еще не получили
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        started.increment();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        change.run();
+                    }
+                } finally {
+                    completed.increment();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.books.validation;
+
+// Разбор ISBN-10/ISBN-13 за один проход без регулярных выражений и промежуточных объектов.
+// Допускаются префикс "ISBN", "ISBN-10" или "ISBN-13" (с двоеточием и/или пробелом)
+// и одиночные дефисы или пробелы между цифрами
+public final class Isbns {
+    
+    private static final String PREFIX = "ISBN";
+    
+    // Результат разбора: недопустимое значение
+    private static final int INVALID = -1;
+    
+    private Isbns() {
+    }
+    
+    // Корректный ISBN-10 или ISBN-13 с верной контрольной цифрой
+    public static boolean isValid(CharSequence value) {
+        return value != null && digitCount(value) != INVALID;
+    }
+    
+    // Канонический ISBN-13 (13 цифр без разделителей). Некорректное значение возвращается без изменений,
+    // уже канонический ISBN-13 - тем же экземпляром строки
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        int digits = digitCount(value);
+        if (digits == INVALID || (digits == 13 && value.length() == 13)) {
+            return value;
+        }
+        
+        char[] isbn13 = new char[13];
+        int position = 0;
+        if (digits == 10) {
+            isbn13[0] = '9';
+            isbn13[1] = '7';
+            isbn13[2] = '8';
+            position = 3;
+        }
+        int limit = position + (digits == 10 ? 9 : 13);
+        for (int i = bodyStart(value); i < value.length() && position < limit; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                isbn13[position++] = c;
+            }
+        }
+        if (digits == 10) {
+            isbn13[12] = (char) ('0' + isbn13CheckDigit(isbn13));
+        }
+        return new String(isbn13);
+    }
+    
+    // Количество цифр (10 или 13), если значение - корректный ISBN, иначе INVALID
+    private static int digitCount(CharSequence value) {
+        int start = bodyStart(value);
+        if (start == INVALID) {
+            return INVALID;
+        }
+        
+        int digits = 0;
+        int sum10 = 0;
+        int sum13 = 0;
+        boolean checkX = false;
+        boolean previousSeparator = true;
+        int prefixDigits = 0;
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (checkX || digits == 13) {
+                    return INVALID;
+                }
+                int digit = c - '0';
+                if (digits < 10) {
+                    sum10 += (10 - digits) * digit;
+                }
+                sum13 += (digits % 2 == 0 ? 1 : 3) * digit;
+                if (digits < 3) {
+                    prefixDigits = prefixDigits * 10 + digit;
+                }
+                digits++;
+                previousSeparator = false;
+            } else if ((c == 'X' || c == 'x') && digits == 9 && !checkX) {
+                sum10 += 10;
+                digits++;
+                checkX = true;
+                previousSeparator = false;
+            } else if ((c == '-' || c == ' ') && !previousSeparator) {
+                previousSeparator = true;
+            } else {
+                return INVALID;
+            }
+        }
+        if (previousSeparator) {
+            return INVALID;
+        }
+        if (digits == 10) {
+            return sum10 % 11 == 0 ? 10 : INVALID;
+        }
+        if (digits == 13 && !checkX && (prefixDigits == 978 || prefixDigits == 979)) {
+            return sum13 % 10 == 0 ? 13 : INVALID;
+        }
+        return INVALID;
+    }
+    
+    // Индекс первого символа после необязательного префикса "ISBN", "ISBN-10:", "ISBN-13 " и т.п.
+    private static int bodyStart(CharSequence value) {
+        int length = value.length();
+        if (length < PREFIX.length() || !startsWithPrefix(value)) {
+            return 0;
+        }
+        int i = PREFIX.length();
+        if (i + 2 < length && value.charAt(i) == '-' && value.charAt(i + 1) == '1'
+                && (value.charAt(i + 2) == '0' || value.charAt(i + 2) == '3')) {
+            i += 3;
+        }
+        if (i < length && value.charAt(i) == ':') {
+            i++;
+        }
+        if (i < length && value.charAt(i) == ' ') {
+            i++;
+        }
+        return i == PREFIX.length() ? INVALID : i;
+    }
+    
+    private static boolean startsWithPrefix(CharSequence value) {
+        for (int i = 0; i < PREFIX.length(); i++) {
+            if (value.charAt(i) != PREFIX.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static int isbn13CheckDigit(char[] isbn13) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (i % 2 == 0 ? 1 : 3) * (isbn13[i] - '0');
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,5 @@
+-- Индексы под фильтры и сортировки BookRepository
+CREATE INDEX IF NOT EXISTS idx_books_status ON books (status);
+CREATE INDEX IF NOT EXISTS idx_books_author ON books (author);
+CREATE INDEX IF NOT EXISTS idx_books_publication_year ON books (publication_year);
+CREATE INDEX IF NOT EXISTS idx_books_pages ON books (pages);
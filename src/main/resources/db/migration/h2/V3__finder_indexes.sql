@@ -0,0 +1,10 @@
+-- Индексы под запросы BookRepository. В H2 нет индексов по выражениям и триграмм,
+-- поиск подстроки без учета регистра индексируется только в PostgreSQL
+
+-- findByStatus с пагинацией по id, keyset-запросы findByStatusAndIdGreaterThan... и countByStatus
+CREATE INDEX IF NOT EXISTS idx_books_status_id ON books (status, id);
+DROP INDEX IF EXISTS idx_books_status;
+
+-- findByPublicationYear / findByPublicationYearBetween с выборкой в порядке id
+CREATE INDEX IF NOT EXISTS idx_books_publication_year_id ON books (publication_year, id);
+DROP INDEX IF EXISTS idx_books_publication_year;
@@ -0,0 +1,15 @@
+-- Лента изменений для инкрементальной синхронизации (GET /api/books/changes?since=)
+CREATE SEQUENCE IF NOT EXISTS book_change_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS book_changes (
+    seq         BIGINT       NOT NULL PRIMARY KEY,
+    book_id     BIGINT,
+    change_type VARCHAR(16)  NOT NULL CHECK (change_type IN ('UPSERT', 'DELETE', 'CLEAR')),
+    changed_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_book_changes_book_id ON book_changes (book_id);
+
+-- Существующие книги попадают в ленту, чтобы запрос с since=0 давал полную копию каталога
+INSERT INTO book_changes (seq, book_id, change_type, changed_at)
+SELECT NEXT VALUE FOR book_change_seq, id, 'UPSERT', CURRENT_TIMESTAMP FROM (SELECT id FROM books ORDER BY id) b;
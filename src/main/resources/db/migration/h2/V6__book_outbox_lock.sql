@@ -0,0 +1,6 @@
+-- Блокировка доставки outbox: порцию book_events публикует только один экземпляр приложения
+CREATE TABLE IF NOT EXISTS book_outbox_lock (
+    name VARCHAR(64) NOT NULL PRIMARY KEY
+);
+
+INSERT INTO book_outbox_lock (name) VALUES ('book_outbox_relay');
@@ -0,0 +1,2 @@
+-- Номера ленты изменений назначает BookChangeLog под блокировкой доставки outbox (MAX(seq) + 1)
+DROP SEQUENCE IF EXISTS book_change_seq;
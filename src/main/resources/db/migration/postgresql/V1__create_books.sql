@@ -0,0 +1,18 @@
+-- Таблица книг: соответствует сущности com.example.books.model.Book
+CREATE SEQUENCE IF NOT EXISTS book_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS books (
+    id               BIGINT        NOT NULL PRIMARY KEY,
+    title            VARCHAR(255)  NOT NULL,
+    author           VARCHAR(255)  NOT NULL,
+    description      VARCHAR(1000),
+    publication_year INTEGER       NOT NULL,
+    pages            INTEGER       NOT NULL,
+    isbn             VARCHAR(255),
+    status           VARCHAR(255)  NOT NULL
+        CHECK (status IN ('AVAILABLE', 'BORROWED', 'RESERVED', 'MAINTENANCE')),
+    created_at       DATE,
+    updated_at       DATE,
+    version          BIGINT        NOT NULL DEFAULT 0,
+    CONSTRAINT uk_books_isbn UNIQUE (isbn)
+);
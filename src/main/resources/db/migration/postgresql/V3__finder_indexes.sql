@@ -0,0 +1,21 @@
+-- Индексы под запросы BookRepository, BookSpecifications и BookRepositoryImpl
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- findByStatus с пагинацией по id, keyset-запросы findByStatusAndIdGreaterThan... и countByStatus (index-only scan);
+-- одиночный индекс по status перекрывается составным
+CREATE INDEX IF NOT EXISTS idx_books_status_id ON books (status, id);
+DROP INDEX IF EXISTS idx_books_status;
+
+-- findByPublicationYear / findByPublicationYearBetween с выборкой в порядке id
+CREATE INDEX IF NOT EXISTS idx_books_publication_year_id ON books (publication_year, id);
+DROP INDEX IF EXISTS idx_books_publication_year;
+
+-- Поиск подстроки без учета регистра (LIKE '%...%'). Производные запросы Spring Data (...ContainingIgnoreCase)
+-- сравнивают upper(столбец), JPQL-запросы и спецификации - lower(столбец): нужны индексы по обоим выражениям
+CREATE INDEX IF NOT EXISTS idx_books_author_upper_trgm ON books USING gin (upper(author) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_books_title_upper_trgm ON books USING gin (upper(title) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_books_author_lower_trgm ON books USING gin (lower(author) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_books_title_lower_trgm ON books USING gin (lower(title) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_books_description_lower_trgm ON books USING gin (lower(description) gin_trgm_ops);
+
+ANALYZE books;
@@ -0,0 +1,10 @@
+-- Outbox событий изменения книг: пишется в транзакции изменения, вычитывается BookOutboxRelay
+CREATE SEQUENCE IF NOT EXISTS book_event_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS book_events (
+    id          BIGINT       NOT NULL PRIMARY KEY,
+    book_id     BIGINT,
+    event_type  VARCHAR(64)  NOT NULL,
+    payload     TEXT         NOT NULL,
+    created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,9 @@
+-- Доставка outbox каждому экземпляру: держатель блокировки нумерует записи (seq), экземпляры читают
+-- записи после своего курсора, доставленные записи удаляются по сроку хранения (books.outbox.retention).
+-- ID выдаются по одному, чтобы у записей одной книги они росли в порядке фиксации на всех экземплярах
+ALTER SEQUENCE book_event_seq INCREMENT BY 1;
+
+ALTER TABLE book_events ADD COLUMN seq BIGINT;
+ALTER TABLE book_events ADD COLUMN sequenced_at TIMESTAMP(6) WITH TIME ZONE;
+
+CREATE INDEX IF NOT EXISTS idx_book_events_seq ON book_events (seq, id);
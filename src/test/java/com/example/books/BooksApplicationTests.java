@@ -1,13 +1,46 @@
 package com.example.books;
 
+import com.example.books.model.Book;
+import com.example.books.reactive.ReactiveBookRepository;
+import com.example.books.repository.BookRepository;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import reactor.test.StepVerifier;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 class BooksApplicationTests {
 
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private ReactiveBookRepository reactiveBookRepository;
+
 	@Test
 	void contextLoads() {
 	}
 
+	// JPA и R2DBC поднимаются вместе и работают с одной базой
+	@Test
+	void jpaAndR2dbcRepositoriesShareDatabase() {
+		assertThat(dataSource).isNotNull();
+		Book book = bookRepository.saveAndFlush(
+				new Book("Отцы и дети", "Иван Тургенев", null, 1862, 288, null));
+		try {
+			StepVerifier.create(reactiveBookRepository.findById(book.getId()))
+					.assertNext(row -> assertThat(row.getTitle()).isEqualTo("Отцы и дети"))
+					.verifyComplete();
+		} finally {
+			bookRepository.deleteById(book.getId());
+		}
+	}
+
 }
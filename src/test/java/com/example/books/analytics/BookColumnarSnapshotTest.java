@@ -0,0 +1,177 @@
+package com.example.books.analytics;
+
+import com.example.books.dto.BookDto;
+import com.example.books.event.BookChangedEvent;
+import com.example.books.event.BookEvent;
+import com.example.books.event.BookEventBatch;
+import com.example.books.event.BookStatusBulkChangedEvent;
+import com.example.books.event.BooksClearedEvent;
+import com.example.books.model.BookStatus;
+import com.example.books.repository.BookColumns;
+import com.example.books.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Колоночный снимок: повторное использование освобожденных строк, массовая смена статуса,
+// повтор событий, пришедших во время перестроения, и агрегаты на известном наборе данных
+class BookColumnarSnapshotTest {
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+
+    private final BookColumnarSnapshot snapshot = new BookColumnarSnapshot(bookRepository, new SimpleMeterRegistry());
+
+    @Test
+    void percentilesAndHistogramOnKnownDataset() {
+        List<BookColumns> rows = new ArrayList<>();
+        int[] years = {1859, 1862, 1866, 1869, 1877, 1880, 1889, 1899, 1904, 1912};
+        for (int i = 0; i < years.length; i++) {
+            rows.add(new Row((long) i + 1, "Автор " + (i % 3), years[i], (i + 1) * 100,
+                    i < 6 ? BookStatus.AVAILABLE : BookStatus.BORROWED));
+        }
+        rows.add(new Row(11L, "Автор 0", null, null, BookStatus.AVAILABLE));
+        givenDatabase(rows);
+
+        snapshot.rebuild();
+
+        // Страницы 100..1000: перцентили по ближайшему рангу ceil(p / 100 * n)
+        assertThat(snapshot.pagePercentiles(null, null, null)).containsExactly(
+                Map.entry("count", 10), Map.entry("min", 100), Map.entry("max", 1000), Map.entry("mean", 550.0),
+                Map.entry("p50", 500), Map.entry("p75", 800), Map.entry("p90", 900),
+                Map.entry("p95", 1000), Map.entry("p99", 1000));
+        assertThat(snapshot.pagePercentiles(BookStatus.BORROWED, 1880, 1910)).containsEntry("count", 3)
+                .containsEntry("min", 700).containsEntry("max", 900).containsEntry("p50", 800);
+        assertThat(snapshot.decadeHistogram(null)).containsExactly(
+                Map.entry(1850, 1L), Map.entry(1860, 3L), Map.entry(1870, 1L), Map.entry(1880, 2L),
+                Map.entry(1890, 1L), Map.entry(1900, 1L), Map.entry(1910, 1L));
+        assertThat(snapshot.decadeHistogram(BookStatus.BORROWED)).containsExactly(
+                Map.entry(1880, 1L), Map.entry(1890, 1L), Map.entry(1900, 1L), Map.entry(1910, 1L));
+        assertThat(snapshot.count(null, 1860, 1889, 200, 700)).isEqualTo(6);
+        assertThat(snapshot.authorCounts(null, 2)).containsExactly(Map.entry("Автор 0", 5L), Map.entry("Автор 1", 3L));
+    }
+
+    @Test
+    void deletedRowIsReusedWithoutLeakingOldValues() {
+        givenDatabase(List.of(
+                new Row(1L, "Тургенев", 1862, 288, BookStatus.AVAILABLE),
+                new Row(2L, "Гончаров", 1859, 640, BookStatus.BORROWED),
+                new Row(3L, "Тургенев", 1856, 224, BookStatus.AVAILABLE)));
+        snapshot.rebuild();
+
+        deliver(BookChangedEvent.deleted(2L, BookStatus.BORROWED),
+                BookChangedEvent.deleted(2L, BookStatus.BORROWED),
+                BookChangedEvent.created(book(4L, "Толстой", 1877, 864, BookStatus.RESERVED)));
+
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.count(BookStatus.BORROWED, null, null, null, null)).isZero();
+        assertThat(snapshot.count(BookStatus.RESERVED, null, null, null, null)).isEqualTo(1);
+        assertThat(snapshot.decadeHistogram(null)).containsExactly(
+                Map.entry(1850, 1L), Map.entry(1860, 1L), Map.entry(1870, 1L));
+        assertThat(snapshot.authorCounts(null, 10)).containsExactly(
+                Map.entry("Тургенев", 2L), Map.entry("Толстой", 1L));
+        assertThat(snapshot.pagePercentiles(null, null, null)).containsEntry("count", 3).containsEntry("max", 864);
+
+        deliver(BookChangedEvent.deleted(4L, BookStatus.RESERVED),
+                BookChangedEvent.created(book(5L, "Гоголь", null, null, BookStatus.AVAILABLE)));
+
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.count(null, 1870, null, null, null)).isZero();
+        assertThat(snapshot.pagePercentiles(null, null, null)).containsEntry("count", 2).containsEntry("max", 288);
+    }
+
+    @Test
+    void bulkStatusChangeRewritesOnlyListedBooks() {
+        givenDatabase(List.of(
+                new Row(1L, "Чехов", 1890, 100, BookStatus.AVAILABLE),
+                new Row(2L, "Чехов", 1895, 200, BookStatus.AVAILABLE),
+                new Row(3L, "Чехов", 1900, 300, BookStatus.AVAILABLE),
+                new Row(4L, "Чехов", 1904, 400, BookStatus.AVAILABLE)));
+        snapshot.rebuild();
+
+        deliver(new BookStatusBulkChangedEvent(BookStatus.MAINTENANCE, Map.of(BookStatus.AVAILABLE, 2L),
+                List.of(1L, 3L, 99L)));
+        deliver(new BookStatusBulkChangedEvent(BookStatus.MAINTENANCE, Map.of(BookStatus.AVAILABLE, 2L),
+                List.of(1L, 3L, 99L)));
+
+        assertThat(snapshot.size()).isEqualTo(4);
+        assertThat(snapshot.count(BookStatus.MAINTENANCE, null, null, null, null)).isEqualTo(2);
+        assertThat(snapshot.count(BookStatus.AVAILABLE, null, null, null, null)).isEqualTo(2);
+        assertThat(snapshot.pagePercentiles(BookStatus.MAINTENANCE, null, null))
+                .containsEntry("min", 100).containsEntry("max", 300);
+    }
+
+    @Test
+    void eventsArrivingDuringRebuildAreReplayedOnNewSnapshot() {
+        givenDatabase(List.of(
+                new Row(1L, "Лесков", 1865, 100, BookStatus.AVAILABLE),
+                new Row(2L, "Лесков", 1873, 200, BookStatus.AVAILABLE)));
+        snapshot.rebuild();
+
+        // Чтение из БД видит состояние до событий, которые доставляются, пока оно идет
+        AtomicBoolean delivered = new AtomicBoolean();
+        when(bookRepository.streamColumns()).thenAnswer(invocation -> List.<BookColumns>of(
+                        new Row(1L, "Лесков", 1865, 100, BookStatus.AVAILABLE),
+                        new Row(2L, "Лесков", 1873, 200, BookStatus.AVAILABLE),
+                        new Row(3L, "Лесков", 1881, 300, BookStatus.AVAILABLE))
+                .stream()
+                .peek(row -> {
+                    if (delivered.compareAndSet(false, true)) {
+                        deliver(BookChangedEvent.deleted(2L, BookStatus.AVAILABLE),
+                                BookChangedEvent.created(book(4L, "Писемский", 1858, 400, BookStatus.AVAILABLE)),
+                                new BookStatusBulkChangedEvent(BookStatus.BORROWED, Map.of(BookStatus.AVAILABLE, 1L),
+                                        List.of(3L)));
+                    }
+                }));
+
+        snapshot.rebuild();
+
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.count(BookStatus.BORROWED, null, null, null, null)).isEqualTo(1);
+        assertThat(snapshot.count(null, 1870, 1879, null, null)).isZero();
+        assertThat(snapshot.authorCounts(null, 10)).containsExactly(
+                Map.entry("Лесков", 2L), Map.entry("Писемский", 1L));
+    }
+
+    @Test
+    void clearDuringRebuildEmptiesNewSnapshot() {
+        AtomicBoolean delivered = new AtomicBoolean();
+        when(bookRepository.streamColumns()).thenAnswer(invocation -> List.<BookColumns>of(
+                        new Row(1L, "Гаршин", 1883, 100, BookStatus.AVAILABLE))
+                .stream()
+                .peek(row -> {
+                    if (delivered.compareAndSet(false, true)) {
+                        deliver(new BooksClearedEvent(1));
+                    }
+                }));
+
+        snapshot.rebuild();
+
+        assertThat(snapshot.isReady()).isTrue();
+        assertThat(snapshot.size()).isZero();
+        assertThat(snapshot.pagePercentiles(null, null, null)).containsExactly(Map.entry("count", 0));
+    }
+
+    private void givenDatabase(List<BookColumns> rows) {
+        when(bookRepository.streamColumns()).thenAnswer(invocation -> rows.stream());
+    }
+
+    private void deliver(BookEvent... events) {
+        snapshot.onEvents(new BookEventBatch(List.of(events)));
+    }
+
+    private static BookDto book(Long id, String author, Integer year, Integer pages, BookStatus status) {
+        return new BookDto(id, "Книга " + id, author, null, year, pages, null, status);
+    }
+
+    private record Row(Long getId, String getAuthor, Integer getPublicationYear, Integer getPages,
+                       BookStatus getStatus) implements BookColumns {
+    }
+}
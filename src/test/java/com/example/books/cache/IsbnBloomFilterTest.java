@@ -0,0 +1,132 @@
+package com.example.books.cache;
+
+import com.example.books.dto.BookDto;
+import com.example.books.event.BookChangedEvent;
+import com.example.books.event.BooksClearedEvent;
+import com.example.books.model.BookStatus;
+import com.example.books.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Считающий фильтр Блума: нет ложноотрицательных ответов после добавления, удаления и перестроения
+class IsbnBloomFilterTest {
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+
+    private final IsbnBloomFilter filter = new IsbnBloomFilter(bookRepository, 1000, 0.01, new SimpleMeterRegistry());
+
+    @Test
+    void answersMaybeUntilBuilt() {
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.mightContain(isbn(1))).isTrue();
+    }
+
+    @Test
+    void rebuildLoadsAllIsbnsFromDatabase() {
+        List<String> stored = isbns(0, 500);
+        givenDatabase(stored);
+
+        filter.rebuild();
+
+        assertThat(filter.isReady()).isTrue();
+        assertThat(filter.elements()).isEqualTo(500);
+        assertThat(stored).allMatch(filter::mightContain);
+        long falsePositives = isbns(500, 5500).stream().filter(filter::mightContain).count();
+        assertThat(falsePositives).isLessThan(250);
+    }
+
+    @Test
+    void addAndRemoveUpdateCounters() {
+        givenDatabase(List.of());
+        filter.rebuild();
+        String isbn = isbn(42);
+
+        filter.add(isbn);
+        assertThat(filter.mightContain(isbn)).isTrue();
+        assertThat(filter.elements()).isEqualTo(1);
+
+        filter.remove(isbn);
+        assertThat(filter.mightContain(isbn)).isFalse();
+        assertThat(filter.elements()).isZero();
+    }
+
+    @Test
+    void removingOneIsbnKeepsOthers() {
+        List<String> stored = isbns(0, 300);
+        givenDatabase(stored);
+        filter.rebuild();
+
+        for (String isbn : stored.subList(0, 150)) {
+            filter.remove(isbn);
+        }
+
+        assertThat(stored.subList(150, 300)).allMatch(filter::mightContain);
+        assertThat(filter.elements()).isEqualTo(150);
+    }
+
+    @Test
+    void isbnChangeMovesItInFilter() {
+        givenDatabase(List.of());
+        filter.rebuild();
+        String oldIsbn = isbn(1);
+        String newIsbn = isbn(2);
+        filter.add(oldIsbn);
+
+        filter.onBookChanged(BookChangedEvent.updated(book(newIsbn), BookStatus.AVAILABLE, oldIsbn));
+
+        assertThat(filter.mightContain(oldIsbn)).isFalse();
+        assertThat(filter.mightContain(newIsbn)).isTrue();
+    }
+
+    @Test
+    void clearAndRebuildRestoreState() {
+        List<String> stored = isbns(0, 100);
+        givenDatabase(stored);
+        filter.rebuild();
+
+        filter.onBooksCleared(new BooksClearedEvent(100));
+        assertThat(filter.elements()).isZero();
+        assertThat(filter.mightContain(stored.get(0))).isFalse();
+
+        filter.rebuild();
+        assertThat(stored).allMatch(filter::mightContain);
+    }
+
+    private void givenDatabase(List<String> isbns) {
+        when(bookRepository.count()).thenReturn((long) isbns.size());
+        when(bookRepository.streamIsbns()).thenAnswer(invocation -> isbns.stream());
+    }
+
+    private static BookDto book(String isbn) {
+        BookDto book = new BookDto();
+        book.setId(1L);
+        book.setIsbn(isbn);
+        book.setStatus(BookStatus.AVAILABLE);
+        return book;
+    }
+
+    private static List<String> isbns(int from, int to) {
+        List<String> isbns = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            isbns.add(isbn(i));
+        }
+        return isbns;
+    }
+
+    // Канонический ISBN-13 978-5-xxxxxxx с верной контрольной цифрой
+    private static String isbn(int number) {
+        String body = "9785" + String.format("%08d", number);
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (i % 2 == 0 ? 1 : 3) * (body.charAt(i) - '0');
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.books.concurrency;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Очередь за соединениями ограничена: лишний поток получает отказ сразу, а не ждет connection-timeout
+class ConnectionAdmissionDataSourceTest {
+
+    private HikariDataSource hikariDataSource;
+
+    private ConnectionAdmissionDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        hikariDataSource = new HikariDataSource();
+        hikariDataSource.setJdbcUrl("jdbc:h2:mem:admission;DB_CLOSE_DELAY=-1");
+        hikariDataSource.setMaximumPoolSize(1);
+        hikariDataSource.setConnectionTimeout(5000);
+        dataSource = new ConnectionAdmissionDataSource(hikariDataSource, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hikariDataSource.close();
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        try (Connection held = dataSource.getConnection()) {
+            CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    assertThat(connection.isValid(1)).isTrue();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (hikariDataSource.getHikariPoolMXBean().getThreadsAwaitingConnection() < 1
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+            assertThat(dataSource.getRejectedCount()).isEqualTo(1);
+
+            held.close();
+            waiting.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void admitsWhileQueueIsShort() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+        assertThat(dataSource.getRejectedCount()).isZero();
+    }
+}
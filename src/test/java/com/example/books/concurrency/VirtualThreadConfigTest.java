@@ -0,0 +1,30 @@
+package com.example.books.concurrency;
+
+import com.example.books.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// В режиме виртуальных потоков пул Hikari обернут ограничением очереди, JPA работает через обертку
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:virtualthreadstest"
+})
+class VirtualThreadConfigTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void dataSourceIsWrappedWithAdmission() throws Exception {
+        assertThat(dataSource.isWrapperFor(ConnectionAdmissionDataSource.class)).isTrue();
+        assertThat(bookRepository.count()).isGreaterThanOrEqualTo(0);
+    }
+}
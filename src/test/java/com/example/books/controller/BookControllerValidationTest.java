@@ -0,0 +1,52 @@
+package com.example.books.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Некорректные запросы отклоняются с 400 до обращения к БД
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:mvctest")
+@AutoConfigureMockMvc
+class BookControllerValidationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void batchWithNullElementIsRejectedWithIndex() throws Exception {
+        String body = "[{\"title\":\"Мертвые души\",\"author\":\"Николай Гоголь\",\"publicationYear\":1842,\"pages\":352}, null]";
+        mockMvc.perform(post("/api/books/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("индексом 1")));
+    }
+
+    @Test
+    void oversizedBatchIsRejected() throws Exception {
+        String body = "[" + String.join(",", Collections.nCopies(10001, "{}")) + "]";
+        mockMvc.perform(post("/api/books/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("10000")));
+    }
+
+    @Test
+    void bulkStatusChangeWithoutIdsOrFilterIsRejected() throws Exception {
+        mockMvc.perform(post("/api/books/status/bulk").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"targetStatus\":\"MAINTENANCE\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("хотя бы один фильтр")));
+        mockMvc.perform(post("/api/books/status/bulk").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"targetStatus\":\"MAINTENANCE\",\"ids\":[],\"author\":\" \"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("хотя бы один фильтр")));
+    }
+}
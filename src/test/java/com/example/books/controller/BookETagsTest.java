@@ -0,0 +1,142 @@
+package com.example.books.controller;
+
+import com.example.books.event.BookEventBatch;
+import com.example.books.exception.InvalidRequestParameterException;
+import com.example.books.exception.PreconditionFailedException;
+import com.example.books.model.Book;
+import com.example.books.repository.BookRepository;
+import com.example.books.search.BookSearchIndex;
+import com.example.books.serialization.BookFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// ETag свой у каждого формата представления; If-Match принимает сильную метку той же книги любого формата
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:mvctest")
+@AutoConfigureMockMvc
+class BookETagsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookSearchIndex searchIndex;
+
+    @Test
+    void bookEtagDependsOnFormatAndIsStrong() throws Exception {
+        Book book = bookRepository.saveAndFlush(new Book("Обломов", "Иван Гончаров", null, 1859, 480, null));
+        try {
+            String jsonTag = getETag("/api/books/" + book.getId(), MediaType.APPLICATION_JSON);
+            String cborTag = getETag("/api/books/" + book.getId(), MediaType.APPLICATION_CBOR);
+            assertThat(jsonTag).isEqualTo("\"" + book.getId() + "." + book.getVersion() + "-json\"");
+            assertThat(cborTag).isEqualTo("\"" + book.getId() + "." + book.getVersion() + "-cbor\"");
+
+            mockMvc.perform(get("/api/books/" + book.getId()).accept(MediaType.APPLICATION_JSON)
+                            .header(HttpHeaders.IF_NONE_MATCH, jsonTag))
+                    .andExpect(status().isNotModified());
+            mockMvc.perform(get("/api/books/" + book.getId()).accept(MediaType.APPLICATION_CBOR)
+                            .header(HttpHeaders.IF_NONE_MATCH, jsonTag))
+                    .andExpect(status().isOk());
+        } finally {
+            bookRepository.deleteById(book.getId());
+        }
+    }
+
+    @Test
+    void collectionEtagDependsOnFormat() throws Exception {
+        String jsonTag = getETag("/api/books", MediaType.APPLICATION_JSON);
+        String cborTag = getETag("/api/books", MediaType.APPLICATION_CBOR);
+        assertThat(jsonTag).isNotEqualTo(cborTag);
+        mockMvc.perform(get("/api/books").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, cborTag))
+                .andExpect(status().isNotModified());
+    }
+
+    // Списки проверяются только по ETag: If-Modified-Since не дает 304 после записи в ту же секунду
+    @Test
+    void collectionHasNoLastModified() throws Exception {
+        mockMvc.perform(get("/api/books").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+        mockMvc.perform(get("/api/books").accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Fri, 01 Jan 2100 00:00:00 GMT"))
+                .andExpect(status().isOk());
+    }
+
+    // Индекс применяет записи после фиксации: ETag поиска меняется и тогда, когда версия коллекции уже прежняя
+    @Test
+    void searchEtagChangesWhenIndexAppliesBatch() throws Exception {
+        String before = getETag("/api/books/search?keyword=обломов", MediaType.APPLICATION_JSON);
+        searchIndex.onEvents(new BookEventBatch(List.of()));
+        String after = getETag("/api/books/search?keyword=обломов", MediaType.APPLICATION_JSON);
+        assertThat(after).isNotEqualTo(before);
+        mockMvc.perform(get("/api/books/search?keyword=обломов").accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, after))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void parseVersionAcceptsStrongTagsOfAnyFormat() {
+        assertThat(BookETags.parseVersion(7L, BookETags.of(7L, 3L, BookFormat.SMILE))).isEqualTo(3L);
+        assertThat(BookETags.parseVersion(7L, "\"7.4\"")).isEqualTo(4L);
+        assertThat(BookETags.parseVersion(7L, "*")).isNull();
+    }
+
+    @Test
+    void parseVersionRejectsWeakTagsAndTagsOfOtherBooks() {
+        assertThatThrownBy(() -> BookETags.parseVersion(7L, "W/\"7.3-json\""))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> BookETags.parseVersion(9L, BookETags.of(7L, 3L, BookFormat.JSON)))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> BookETags.parseVersion(7L, "7.3"))
+                .isInstanceOf(InvalidRequestParameterException.class);
+    }
+
+    @Test
+    void patchWithTagOfAnotherBookFailsPrecondition() throws Exception {
+        Book first = bookRepository.saveAndFlush(new Book("Нос", "Николай Гоголь", null, 1836, 40, null));
+        Book second = bookRepository.saveAndFlush(new Book("Шинель", "Николай Гоголь", null, 1842, 50, null));
+        try {
+            String firstTag = getETag("/api/books/" + first.getId(), MediaType.APPLICATION_JSON);
+            mockMvc.perform(patch("/api/books/" + second.getId())
+                            .contentType("application/merge-patch+json")
+                            .header(HttpHeaders.IF_MATCH, firstTag)
+                            .content("{\"pages\": 60}"))
+                    .andExpect(status().isPreconditionFailed());
+            mockMvc.perform(patch("/api/books/" + first.getId())
+                            .contentType("application/merge-patch+json")
+                            .header(HttpHeaders.IF_MATCH, "W/" + firstTag)
+                            .content("{\"pages\": 60}"))
+                    .andExpect(status().isPreconditionFailed());
+            mockMvc.perform(patch("/api/books/" + first.getId())
+                            .contentType("application/merge-patch+json")
+                            .header(HttpHeaders.IF_MATCH, firstTag)
+                            .content("{\"pages\": 60}"))
+                    .andExpect(status().isOk());
+        } finally {
+            bookRepository.deleteById(first.getId());
+            bookRepository.deleteById(second.getId());
+        }
+    }
+
+    private String getETag(String uri, MediaType mediaType) throws Exception {
+        return mockMvc.perform(get(uri).accept(mediaType))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
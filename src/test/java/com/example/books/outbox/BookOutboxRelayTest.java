@@ -0,0 +1,179 @@
+package com.example.books.outbox;
+
+import com.example.books.changes.BookChange;
+import com.example.books.changes.BookChangeKind;
+import com.example.books.changes.BookChangeRepository;
+import com.example.books.dto.BookDto;
+import com.example.books.dto.CreateBookDto;
+import com.example.books.event.BookChangedEvent;
+import com.example.books.event.BookEventBatch;
+import com.example.books.search.BookSearchIndex;
+import com.example.books.search.BookSearchIndex.SearchField;
+import com.example.books.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Доставка событий из outbox: держатель блокировки нумерует записи и пишет ленту изменений один раз,
+// каждый экземпляр доставляет пронумерованные записи по своему курсору; пока блокировку держит
+// другой экземпляр, записи остаются без номера. Плановая доставка отключена, порции доставляет тест;
+// база своя, чтобы доставка outbox других тестовых контекстов не забирала события этого теста
+@SpringBootTest(properties = {
+        "books.outbox.relay-interval-ms=3600000",
+        "spring.datasource.url=jdbc:h2:mem:outboxtest"
+})
+class BookOutboxRelayTest {
+
+    @Autowired
+    private BookOutboxRelay relay;
+
+    @Autowired
+    private BookOutboxRepository outboxRepository;
+
+    @Autowired
+    private BookOutboxLockRepository lockRepository;
+
+    @Autowired
+    private BookChangeRepository changeRepository;
+
+    @Autowired
+    private BookSearchIndex searchIndex;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void drainOutbox() {
+        while (relay.relayBatch() > 0) {
+            // События предыдущих тестов
+        }
+    }
+
+    @Test
+    void deliversCommittedChangesOnce() {
+        BookDto book = bookService.createBook(
+                new CreateBookDto("Тихий Дон", "Михаил Шолохов", "Роман-эпопея", 1940, 1500, null));
+        assertThat(outboxRepository.findUnsequenced(Pageable.unpaged())).hasSize(1);
+        assertThat(searchIndex.search("шолохов", SearchField.AUTHOR)).doesNotContain(book.getId());
+
+        assertThat(relay.relayBatch()).isEqualTo(1);
+
+        assertThat(outboxRepository.findUnsequenced(Pageable.unpaged())).isEmpty();
+        assertThat(searchIndex.search("шолохов", SearchField.AUTHOR)).contains(book.getId());
+        assertThat(changesOf(book.getId())).extracting(BookChange::getChangeType).containsExactly(BookChangeKind.UPSERT);
+        assertThat(relay.relayBatch()).isZero();
+        assertThat(changesOf(book.getId())).hasSize(1);
+
+        bookService.deleteBook(book.getId());
+        assertThat(relay.relayBatch()).isEqualTo(1);
+        assertThat(searchIndex.search("шолохов", SearchField.AUTHOR)).doesNotContain(book.getId());
+        assertThat(changesOf(book.getId())).extracting(BookChange::getChangeType).containsExactly(BookChangeKind.DELETE);
+    }
+
+    @Test
+    void skipsBatchWhileAnotherRelayHoldsLock() throws Exception {
+        BookDto book = bookService.createBook(
+                new CreateBookDto("Белая гвардия", "Михаил Булгаков", null, 1925, 320, null));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> otherRelay = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    assertThat(lockRepository.tryLock(BookOutboxRelay.RELAY_LOCK)).isPresent();
+                    locked.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        try {
+            assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(relay.relayBatch()).isZero();
+            assertThat(outboxRepository.findUnsequenced(Pageable.unpaged())).hasSize(1);
+        } finally {
+            release.countDown();
+            otherRelay.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(relay.relayBatch()).isEqualTo(1);
+        assertThat(changesOf(book.getId())).hasSize(1);
+        bookService.deleteBook(book.getId());
+    }
+
+    @Test
+    void discardsUnreadableEntries() {
+        outboxRepository.saveAndFlush(new BookOutboxEntry(1L, "UNKNOWN", "{}"));
+        outboxRepository.saveAndFlush(new BookOutboxEntry(2L, "BOOK_CHANGED", "not json"));
+
+        assertThat(relay.relayBatch()).isEqualTo(2);
+        assertThat(relay.relayBatch()).isZero();
+    }
+
+    @Test
+    void everyInstanceDeliversSequencedEntries() {
+        List<Object> delivered = new ArrayList<>();
+        BookOutboxRelay otherInstance = otherInstance(delivered::add, Duration.ofHours(1));
+        otherInstance.initCursor();
+        BookDto book = bookService.createBook(
+                new CreateBookDto("Мастер и Маргарита", "Михаил Булгаков", null, 1967, 480, null));
+
+        // Другой экземпляр не нумерует записи, пока их не пронумерует держатель блокировки
+        assertThat(otherInstance.deliverBatch()).isZero();
+        assertThat(relay.relayBatch()).isEqualTo(1);
+
+        assertThat(otherInstance.deliverBatch()).isEqualTo(1);
+        assertThat(delivered).singleElement().isInstanceOfSatisfying(BookEventBatch.class, batch ->
+                assertThat(batch.events()).singleElement().isInstanceOfSatisfying(BookChangedEvent.class, event ->
+                        assertThat(event.bookId()).isEqualTo(book.getId())));
+        assertThat(otherInstance.deliverBatch()).isZero();
+        assertThat(changesOf(book.getId())).hasSize(1);
+        bookService.deleteBook(book.getId());
+        relay.relayBatch();
+    }
+
+    @Test
+    void cleanupKeepsLastSequencedEntry() {
+        bookService.deleteBook(bookService.createBook(
+                new CreateBookDto("Собачье сердце", "Михаил Булгаков", null, 1987, 160, null)).getId());
+        relay.relayBatch();
+        long lastSeq = outboxRepository.findMaxSeq();
+
+        otherInstance(event -> { }, Duration.ZERO).cleanup();
+
+        assertThat(outboxRepository.findAll()).extracting(BookOutboxEntry::getSeq).containsExactly(lastSeq);
+        assertThat(outboxRepository.findMaxSeq()).isEqualTo(lastSeq);
+    }
+
+    private BookOutboxRelay otherInstance(ApplicationEventPublisher eventPublisher, Duration retention) {
+        return new BookOutboxRelay(outboxRepository, lockRepository, eventPublisher, objectMapper,
+                transactionManager, 500, retention, new SimpleMeterRegistry());
+    }
+
+    private List<BookChange> changesOf(Long bookId) {
+        return changeRepository.findBySeqGreaterThanOrderBySeqAsc(0L, Pageable.unpaged()).stream()
+                .filter(change -> bookId.equals(change.getBookId()))
+                .toList();
+    }
+}
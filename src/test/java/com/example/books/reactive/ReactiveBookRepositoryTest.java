@@ -0,0 +1,128 @@
+package com.example.books.reactive;
+
+import com.example.books.model.BookStatus;
+import com.example.books.repository.BookSpecifications;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Запросы ReactiveBookRepository к встроенной H2 через R2DBC на схеме из миграции Flyway
+@DataR2dbcTest(properties = "spring.r2dbc.url=r2dbc:h2:mem:///reactivetest?options=DB_CLOSE_DELAY=-1")
+class ReactiveBookRepositoryTest {
+
+    @Autowired
+    private ReactiveBookRepository bookRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @BeforeEach
+    void setUp() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/h2/V1__create_books.sql"))
+                .populate(connectionFactory)
+                .block();
+        databaseClient.sql("DELETE FROM books").then().block();
+        Flux.concat(
+                insert(1, "Война и мир", "Лев Толстой", "Роман-эпопея", 1869, 1300, "9785171021436", BookStatus.AVAILABLE),
+                insert(2, "Анна Каренина", "Лев Толстой", "Роман о любви", 1877, 864, "9785171021443", BookStatus.BORROWED),
+                insert(3, "Преступление и наказание", "Федор Достоевский", "Роман", 1866, 672, null, BookStatus.AVAILABLE))
+                .then()
+                .block();
+    }
+
+    @Test
+    void findByIdMapsAllColumns() {
+        StepVerifier.create(bookRepository.findById(1L))
+                .assertNext(row -> {
+                    assertThat(row.getTitle()).isEqualTo("Война и мир");
+                    assertThat(row.getPublicationYear()).isEqualTo(1869);
+                    assertThat(row.getStatus()).isEqualTo(BookStatus.AVAILABLE);
+                    assertThat(row.getCreatedAt()).isEqualTo(LocalDate.of(2024, 1, 1));
+                    assertThat(row.getVersion()).isZero();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findByAuthorIgnoresCase() {
+        StepVerifier.create(bookRepository.findByAuthorContainingIgnoreCaseOrderByIdAsc("толстой").map(BookRow::getId))
+                .expectNext(1L, 2L)
+                .verifyComplete();
+    }
+
+    @Test
+    void findByStatusAndKeyword() {
+        StepVerifier.create(bookRepository.findByStatusOrderByIdAsc(BookStatus.AVAILABLE).map(BookRow::getId))
+                .expectNext(1L, 3L)
+                .verifyComplete();
+        StepVerifier.create(bookRepository.findByKeyword("%роман%").map(BookRow::getId))
+                .expectNext(1L, 2L, 3L)
+                .verifyComplete();
+    }
+
+    // Спецсимволы LIKE из поисковой строки сравниваются буквально
+    @Test
+    void findByKeywordEscapesWildcards() {
+        StepVerifier.create(bookRepository.findByKeyword(BookSpecifications.containsPattern("%")))
+                .verifyComplete();
+        StepVerifier.create(bookRepository.findByKeyword(BookSpecifications.containsPattern("_")))
+                .verifyComplete();
+        StepVerifier.create(bookRepository.findByKeyword(BookSpecifications.containsPattern("Роман-")).map(BookRow::getId))
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void findByPagesKeepsOrdering() {
+        StepVerifier.create(bookRepository.findByMinPages(800).map(BookRow::getId))
+                .expectNext(2L, 1L)
+                .verifyComplete();
+        StepVerifier.create(bookRepository.findByPublicationYearBetweenOrderByIdAsc(1860, 1870).map(BookRow::getId))
+                .expectNext(1L, 3L)
+                .verifyComplete();
+    }
+
+    // Строки отдаются по запросу подписчика, а не все сразу
+    @Test
+    void streamRespectsBackpressure() {
+        StepVerifier.create(bookRepository.findAllByOrderByIdAsc().map(BookRow::getId), 1)
+                .expectNext(1L)
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenRequest(2)
+                .expectNext(2L, 3L)
+                .verifyComplete();
+    }
+
+    private Mono<Long> insert(long id, String title, String author, String description,
+                               int year, int pages, String isbn, BookStatus status) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("INSERT INTO books (id, title, author, description, "
+                        + "publication_year, pages, isbn, status, created_at, updated_at, version) "
+                        + "VALUES (:id, :title, :author, :description, :year, :pages, :isbn, :status, :created, :created, 0)")
+                .bind("id", id)
+                .bind("title", title)
+                .bind("author", author)
+                .bind("description", description)
+                .bind("year", year)
+                .bind("pages", pages)
+                .bind("status", status.name())
+                .bind("created", LocalDate.of(2024, 1, 1));
+        spec = isbn != null ? spec.bind("isbn", isbn) : spec.bindNull("isbn", String.class);
+        return spec.fetch().rowsUpdated();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.books.repository;
+
+import com.example.books.model.BookStatus;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Планы запросов BookRepository на PostgreSQL (db/migration/postgresql, профиль prod) и 1 000 000 книг,
+// включая поиск подстроки по триграммным индексам upper()/lower(). Нужна пустая база в BOOKS_EXPLAIN_DB_URL:
+// тест заполняет таблицу книг и очищает ее после себя. Долгий тест: запускается профилем explain
+@Tag("explain")
+@EnabledIfEnvironmentVariable(named = "BOOKS_EXPLAIN_DB_URL", matches = ".+")
+@DataJpaTest(properties = {
+        "spring.datasource.url=${BOOKS_EXPLAIN_DB_URL}",
+        RecordingStatementInspector.PROPERTY
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("prod")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookIndexExplainPostgresTest {
+
+    private static final int ROWS = 1_000_000;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private boolean seeded;
+
+    // Статусы распределены как в BookIndexExplainTest; строки латиницей, чтобы триграммы не зависели от локали базы
+    @BeforeAll
+    void seed() {
+        assumeTrue(bookRepository.count() == 0, "Таблица books в BOOKS_EXPLAIN_DB_URL должна быть пустой");
+        jdbcTemplate.update("INSERT INTO books (id, title, author, description, publication_year, pages, isbn, status, "
+                + "created_at, updated_at, version) "
+                + "SELECT x, 'Book ' || x, 'Author ' || (x % 5000), 'Description of book ' || x, 1000 + x % 1025, "
+                + "1 + (x * 7) % 2000, '978' || lpad(x::text, 10, '0'), "
+                + "CASE WHEN x % 100 = 0 THEN 'MAINTENANCE' WHEN x % 50 = 1 THEN 'RESERVED' "
+                + "WHEN x % 10 = 2 THEN 'BORROWED' ELSE 'AVAILABLE' END, "
+                + "CURRENT_DATE, CURRENT_DATE, 0 FROM generate_series(1, " + ROWS + ") AS x");
+        seeded = true;
+        jdbcTemplate.execute("ANALYZE books");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        if (seeded) {
+            jdbcTemplate.execute("TRUNCATE books");
+        }
+    }
+
+    // Метод репозитория, параметры его запроса в порядке подстановки и ожидаемый индекс
+    Stream<Arguments> finders() {
+        return Stream.of(
+                Arguments.of("findByStatus(Pageable)",
+                        (Runnable) () -> bookRepository.findByStatus(BookStatus.MAINTENANCE, PageRequest.of(5, 20)),
+                        List.of("MAINTENANCE", 100, 20), "idx_books_status_id"),
+                Arguments.of("countByStatus",
+                        (Runnable) () -> bookRepository.countByStatus(BookStatus.MAINTENANCE),
+                        List.of("MAINTENANCE"), "idx_books_status_id"),
+                Arguments.of("findByStatusAndIdGreaterThanOrderByIdAsc",
+                        (Runnable) () -> bookRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+                                BookStatus.RESERVED, 500_000L, PageRequest.ofSize(20)),
+                        List.of("RESERVED", 500_000L, 21), "idx_books_status_id"),
+                Arguments.of("findByPublicationYear",
+                        (Runnable) () -> bookRepository.findByPublicationYear(1999),
+                        List.of(1999), "idx_books_publication_year_id"),
+                Arguments.of("findByIsbn",
+                        (Runnable) () -> bookRepository.findByIsbn("9780000012345"),
+                        List.of("9780000012345"), "uk_books_isbn"),
+                Arguments.of("findByAuthorContainingIgnoreCase",
+                        (Runnable) () -> bookRepository.findByAuthorContainingIgnoreCase("author 4999"),
+                        List.of("%author 4999%"), "idx_books_author_upper_trgm"),
+                Arguments.of("findByAuthorContainingIgnoreCase(Pageable)",
+                        (Runnable) () -> bookRepository.findByAuthorContainingIgnoreCase("author 4999",
+                                PageRequest.ofSize(20)),
+                        List.of("%author 4999%", 20), "idx_books_author_upper_trgm"),
+                Arguments.of("findByTitleContainingIgnoreCase",
+                        (Runnable) () -> bookRepository.findByTitleContainingIgnoreCase("book 123456"),
+                        List.of("%book 123456%"), "idx_books_title_upper_trgm"),
+                Arguments.of("findByKeyword",
+                        (Runnable) () -> bookRepository.findByKeyword("book 123456"),
+                        List.of("book 123456", "book 123456"), "idx_books_title_lower_trgm"),
+                Arguments.of("findByKeyword (description)",
+                        (Runnable) () -> bookRepository.findByKeyword("book 123456"),
+                        List.of("book 123456", "book 123456"), "idx_books_description_lower_trgm"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("finders")
+    void finderUsesIndex(String finder, Runnable call, List<Object> parameters, String expectedIndex) {
+        String sql = RecordingStatementInspector.capture(call);
+        assertThat(sql.chars().filter(c -> c == '?').count()).as("Параметры %s: %s", finder, sql)
+                .isEqualTo(parameters.size());
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters.toArray()));
+
+        assertThat(plan)
+                .as("План %s", finder)
+                .doesNotContainIgnoringCase("Seq Scan")
+                .containsIgnoringCase(expectedIndex);
+    }
+}
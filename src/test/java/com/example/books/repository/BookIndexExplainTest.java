@@ -0,0 +1,104 @@
+package com.example.books.repository;
+
+import com.example.books.model.BookStatus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Планы запросов BookRepository на схеме из миграций Flyway (db/migration/h2) и 1 000 000 книг:
+// каждый запрос должен читать индекс, а не всю таблицу. SQL берется у самих методов репозитория.
+// Поиск подстроки (...ContainingIgnoreCase) в H2 не индексируется, его проверяет BookIndexExplainPostgresTest.
+// Долгий тест: запускается профилем explain (mvn test -Pexplain)
+@Tag("explain")
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        RecordingStatementInspector.PROPERTY
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookIndexExplainTest {
+
+    private static final int ROWS = 1_000_000;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Статусы распределены неравномерно, как в живом каталоге: большая часть книг доступна
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO books (id, title, author, description, publication_year, pages, isbn, status, "
+                + "created_at, updated_at, version) "
+                + "SELECT X, 'Книга ' || X, 'Автор ' || MOD(X, 5000), NULL, 1000 + MOD(X, 1025), 1 + MOD(X * 7, 2000), "
+                + "'978' || LPAD(CAST(X AS VARCHAR), 10, '0'), "
+                + "CASE WHEN MOD(X, 100) = 0 THEN 'MAINTENANCE' WHEN MOD(X, 50) = 1 THEN 'RESERVED' "
+                + "WHEN MOD(X, 10) = 2 THEN 'BORROWED' ELSE 'AVAILABLE' END, "
+                + "CURRENT_DATE, CURRENT_DATE, 0 FROM SYSTEM_RANGE(1, " + ROWS + ")");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    // Метод репозитория, параметры его запроса в порядке подстановки и ожидаемый индекс
+    Stream<Arguments> finders() {
+        return Stream.of(
+                Arguments.of("findByStatus",
+                        (Runnable) () -> bookRepository.findByStatus(BookStatus.MAINTENANCE),
+                        List.of("MAINTENANCE"), "IDX_BOOKS_STATUS_ID"),
+                Arguments.of("findByStatus(Pageable)",
+                        (Runnable) () -> bookRepository.findByStatus(BookStatus.MAINTENANCE, PageRequest.of(5, 20)),
+                        List.of("MAINTENANCE", 100, 20), "IDX_BOOKS_STATUS_ID"),
+                Arguments.of("countByStatus",
+                        (Runnable) () -> bookRepository.countByStatus(BookStatus.MAINTENANCE),
+                        List.of("MAINTENANCE"), "IDX_BOOKS_STATUS_ID"),
+                Arguments.of("findByStatusAndIdGreaterThanOrderByIdAsc",
+                        (Runnable) () -> bookRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+                                BookStatus.RESERVED, 500_000L, PageRequest.ofSize(20)),
+                        List.of("RESERVED", 500_000L, 21), "IDX_BOOKS_STATUS_ID"),
+                Arguments.of("findByPublicationYear",
+                        (Runnable) () -> bookRepository.findByPublicationYear(1999),
+                        List.of(1999), "IDX_BOOKS_PUBLICATION_YEAR_ID"),
+                Arguments.of("findByPublicationYearBetween",
+                        (Runnable) () -> bookRepository.findByPublicationYearBetween(1990, 1995),
+                        List.of(1990, 1995), "IDX_BOOKS_PUBLICATION_YEAR_ID"),
+                Arguments.of("findByMinPages",
+                        (Runnable) () -> bookRepository.findByMinPages(1990),
+                        List.of(1990), "IDX_BOOKS_PAGES"),
+                Arguments.of("findByMaxPages",
+                        (Runnable) () -> bookRepository.findByMaxPages(10),
+                        List.of(10), "IDX_BOOKS_PAGES"),
+                Arguments.of("findByIsbn",
+                        (Runnable) () -> bookRepository.findByIsbn("9780000012345"),
+                        List.of("9780000012345"), "UK_BOOKS_ISBN"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("finders")
+    void finderUsesIndex(String finder, Runnable call, List<Object> parameters, String expectedIndex) {
+        String sql = RecordingStatementInspector.capture(call);
+        assertThat(sql.chars().filter(c -> c == '?').count()).as("Параметры %s: %s", finder, sql)
+                .isEqualTo(parameters.size());
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters.toArray()));
+
+        assertThat(plan)
+                .as("План %s", finder)
+                .doesNotContainIgnoringCase("tableScan")
+                .containsIgnoringCase(expectedIndex);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.books.repository;
+
+import com.example.books.model.Book;
+import com.example.books.model.BookStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Частичное обновление BookRepository.patch: одним UPDATE с проверкой версии и прежних значений полей
+@DataJpaTest
+class BookRepositoryPatchTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void patchSetsFieldToNull() {
+        Book book = bookRepository.saveAndFlush(
+                new Book("Война и мир", "Лев Толстой", "Роман-эпопея", 1869, 1300, "9785171021436"));
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("description", null);
+        changes.put("isbn", null);
+
+        assertThat(bookRepository.patch(book.getId(), changes, book.getVersion(), Map.of())).isEqualTo(1);
+
+        Book patched = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(patched.getDescription()).isNull();
+        assertThat(patched.getIsbn()).isNull();
+        assertThat(patched.getTitle()).isEqualTo("Война и мир");
+        assertThat(patched.getVersion()).isEqualTo(book.getVersion() + 1);
+    }
+
+    @Test
+    void patchSetsValues() {
+        Book book = bookRepository.saveAndFlush(
+                new Book("Анна Каренина", "Лев Толстой", null, 1877, 864, null));
+
+        assertThat(bookRepository.patch(book.getId(), Map.of("pages", 900, "status", BookStatus.BORROWED),
+                book.getVersion(), Map.of("status", BookStatus.AVAILABLE))).isEqualTo(1);
+
+        Book patched = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(patched.getPages()).isEqualTo(900);
+        assertThat(patched.getStatus()).isEqualTo(BookStatus.BORROWED);
+    }
+
+    @Test
+    void patchWithStaleVersionChangesNothing() {
+        Book book = bookRepository.saveAndFlush(
+                new Book("Идиот", "Федор Достоевский", null, 1869, 640, null));
+
+        assertThat(bookRepository.patch(book.getId(), Map.of("pages", 1), book.getVersion() + 1, Map.of())).isZero();
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getPages()).isEqualTo(640);
+    }
+
+    @Test
+    void patchChecksPreviousIsbnIncludingNull() {
+        Book book = bookRepository.saveAndFlush(
+                new Book("Бесы", "Федор Достоевский", null, 1872, 768, null));
+
+        assertThat(bookRepository.patch(book.getId(), Map.of("isbn", "978-5-17-090630-7"),
+                null, Map.of("isbn", "978-5-00-000000-0"))).isZero();
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("isbn", null);
+        assertThat(bookRepository.patch(book.getId(), Map.of("isbn", "978-5-17-090630-7"),
+                null, expected)).isEqualTo(1);
+        assertThat(bookRepository.findStatusAndIsbnById(book.getId()).orElseThrow().getIsbn())
+                .isEqualTo("978-5-17-090630-7");
+    }
+}
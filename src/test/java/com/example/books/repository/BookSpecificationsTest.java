@@ -0,0 +1,48 @@
+package com.example.books.repository;
+
+import com.example.books.model.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Символы % и _ в поисковой строке сравниваются буквально, а не как шаблон LIKE
+@DataJpaTest
+class BookSpecificationsTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void wildcardsInTitleAreMatchedLiterally() {
+        Book percent = bookRepository.saveAndFlush(new Book("Скидка 100% на всё", "Автор А", null, 2001, 100, null));
+        bookRepository.saveAndFlush(new Book("Скидка 1000 на всё", "Автор Б", null, 2002, 100, null));
+
+        assertThat(ids(BookSpecifications.titleContains("100%"))).containsExactly(percent.getId());
+        assertThat(ids(BookSpecifications.titleContains("_"))).isEmpty();
+    }
+
+    @Test
+    void wildcardsInAuthorFilterAreMatchedLiterally() {
+        Book underscore = bookRepository.saveAndFlush(new Book("Книга", "user_name", null, 2001, 100, null));
+        Book other = bookRepository.saveAndFlush(new Book("Книга", "userXname", null, 2002, 100, null));
+
+        assertThat(ids(BookSpecifications.authorContains("user_name"))).containsExactly(underscore.getId());
+        assertThat(bookRepository.findIdStatuses(new BookFilter(null, null, "user_", null, null), 0L, 10))
+                .extracting(BookIdStatus::getId)
+                .containsExactly(underscore.getId())
+                .doesNotContain(other.getId());
+    }
+
+    private List<Object> ids(Specification<Book> specification) {
+        return bookRepository.findFields(Set.of("id"), specification, Pageable.unpaged()).getContent().stream()
+                .map(row -> row.get("id"))
+                .toList();
+    }
+}
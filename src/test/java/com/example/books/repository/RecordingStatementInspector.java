@@ -0,0 +1,32 @@
+package com.example.books.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Запоминает SQL, который Hibernate отправляет в базу: планы проверяются по запросам самих методов репозитория.
+// Подключается свойством spring.jpa.properties.hibernate.session_factory.statement_inspector
+public class RecordingStatementInspector implements StatementInspector {
+
+    static final String PROPERTY = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "com.example.books.repository.RecordingStatementInspector";
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    // Первый запрос, выполненный finder (у Page за ним может идти count)
+    static String capture(Runnable finder) {
+        statements.clear();
+        finder.run();
+        if (statements.isEmpty()) {
+            throw new IllegalStateException("Метод репозитория не выполнил ни одного запроса");
+        }
+        return statements.get(0);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.books.search;
+
+import com.example.books.dto.BookDto;
+import com.example.books.event.BookChangedEvent;
+import com.example.books.event.BookEvent;
+import com.example.books.event.BookEventBatch;
+import com.example.books.event.BooksClearedEvent;
+import com.example.books.model.Book;
+import com.example.books.model.BookStatus;
+import com.example.books.repository.BookRepository;
+import com.example.books.search.BookSearchIndex.SearchField;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Перестроение индекса: события, пришедшие во время чтения таблицы, не перезаписываются устаревшими строками
+class BookSearchIndexTest {
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+
+    private final BookSearchIndex searchIndex = new BookSearchIndex(bookRepository, new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(searchIndex, "entityManager", mock(EntityManager.class));
+    }
+
+    @Test
+    void eventsArrivingDuringRebuildWinOverStaleRows() {
+        // Таблица читается до событий: книга 2 еще со старым автором, удаленная книга 3 еще есть
+        AtomicBoolean delivered = new AtomicBoolean();
+        when(bookRepository.streamAll()).thenAnswer(invocation -> List.of(
+                        book(1L, "Белая гвардия", "Булгаков"),
+                        book(2L, "Котлован", "Булгаков"),
+                        book(3L, "Доктор Живаго", "Пастернак"))
+                .stream()
+                .peek(book -> {
+                    if (book.getId() == 2L && delivered.compareAndSet(false, true)) {
+                        deliver(BookChangedEvent.updated(dto(2L, "Котлован", "Платонов"), BookStatus.AVAILABLE),
+                                BookChangedEvent.deleted(3L, BookStatus.AVAILABLE),
+                                BookChangedEvent.created(dto(4L, "Мастер и Маргарита", "Булгаков")));
+                    }
+                }));
+
+        searchIndex.rebuild();
+
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(searchIndex.size()).isEqualTo(3);
+        assertThat(searchIndex.search("булгаков", SearchField.AUTHOR)).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(searchIndex.search("платонов", SearchField.AUTHOR)).containsExactly(2L);
+        assertThat(searchIndex.search("пастернак", SearchField.AUTHOR)).isEmpty();
+    }
+
+    @Test
+    void previousIndexServesQueriesUntilSwap() {
+        when(bookRepository.streamAll()).thenAnswer(invocation -> List.of(book(1L, "Белая гвардия", "Булгаков")).stream());
+        searchIndex.rebuild();
+
+        when(bookRepository.streamAll()).thenAnswer(invocation -> List.of(
+                        book(1L, "Белая гвардия", "Булгаков"),
+                        book(2L, "Котлован", "Платонов"))
+                .stream()
+                .peek(book -> assertThat(searchIndex.search("булгаков", SearchField.AUTHOR)).containsExactly(1L)));
+
+        searchIndex.rebuild();
+
+        assertThat(searchIndex.search("платонов", SearchField.AUTHOR)).containsExactly(2L);
+    }
+
+    @Test
+    void clearDuringRebuildEmptiesNewIndex() {
+        AtomicBoolean delivered = new AtomicBoolean();
+        when(bookRepository.streamAll()).thenAnswer(invocation -> List.of(book(1L, "Белая гвардия", "Булгаков"))
+                .stream()
+                .peek(book -> {
+                    if (delivered.compareAndSet(false, true)) {
+                        deliver(new BooksClearedEvent(1));
+                    }
+                }));
+
+        searchIndex.rebuild();
+
+        assertThat(searchIndex.size()).isZero();
+        assertThat(searchIndex.search("булгаков", SearchField.AUTHOR)).isEmpty();
+    }
+
+    private void deliver(BookEvent... events) {
+        searchIndex.onEvents(new BookEventBatch(List.of(events)));
+    }
+
+    private static Book book(Long id, String title, String author) {
+        Book book = new Book(title, author, null, 1930, 300, null);
+        book.setId(id);
+        return book;
+    }
+
+    private static BookDto dto(Long id, String title, String author) {
+        return new BookDto(id, title, author, null, 1930, 300, null, BookStatus.AVAILABLE);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.books.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Нормализация и стемминг: разные словоформы дают один терм
+class TextAnalyzerTest {
+
+    @Test
+    void wordFormsShareStem() {
+        assertThat(TextAnalyzer.analyze("война войны войной")).containsOnly("войн");
+        assertThat(TextAnalyzer.analyze("Преступление преступлениями")).containsOnly("преступлен");
+        assertThat(TextAnalyzer.analyze("красная красного")).containsOnly("красн");
+    }
+
+    @Test
+    void foldsCaseAndYo() {
+        assertThat(TextAnalyzer.analyze("ЁЛКА елка")).containsExactly("елк", "елк");
+    }
+
+    @Test
+    void keepsShortStems() {
+        // Окончание не срезается, если от слова останется меньше трех символов
+        assertThat(TextAnalyzer.analyze("мир дом его")).containsExactly("мир", "дом", "его");
+    }
+
+    @Test
+    void splitsOnPunctuationAndKeepsDigits() {
+        assertThat(TextAnalyzer.analyze("Война-и-мир, 1869 г.")).containsExactly("войн", "и", "мир", "1869", "г");
+        assertThat(TextAnalyzer.analyze(null)).isEmpty();
+        assertThat(TextAnalyzer.analyze("")).isEmpty();
+    }
+
+    @Test
+    void queryTermsAreUniqueInOrder() {
+        assertThat(TextAnalyzer.analyzeQuery("мир войны и мира")).containsExactly("мир", "войн", "и");
+    }
+}
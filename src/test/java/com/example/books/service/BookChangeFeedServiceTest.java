@@ -0,0 +1,152 @@
+package com.example.books.service;
+
+import com.example.books.changes.BookChange;
+import com.example.books.changes.BookChangeKind;
+import com.example.books.changes.BookChangeRepository;
+import com.example.books.dto.BookChangeDto;
+import com.example.books.dto.BookChangesDto;
+import com.example.books.dto.BookDto;
+import com.example.books.dto.CreateBookDto;
+import com.example.books.outbox.BookOutboxRelay;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Лента изменений: у книги остается только последняя запись, номера растут,
+// long-poll отвечает после фиксации новой порции. Плановая доставка outbox отключена;
+// база своя, чтобы доставка outbox других тестовых контекстов не забирала события этого теста
+@SpringBootTest(properties = {
+        "books.outbox.relay-interval-ms=3600000",
+        "spring.datasource.url=jdbc:h2:mem:outboxtest"
+})
+class BookChangeFeedServiceTest {
+
+    @Autowired
+    private BookChangeFeedService changeFeedService;
+
+    @Autowired
+    private BookChangeRepository changeRepository;
+
+    @Autowired
+    private BookOutboxRelay relay;
+
+    @Autowired
+    private BookService bookService;
+
+    private long since;
+
+    @BeforeEach
+    void setUp() {
+        while (relay.relayBatch() > 0) {
+            // События предыдущих тестов
+        }
+        since = changeRepository.findMaxSeq();
+    }
+
+    @Test
+    void feedKeepsOnlyLatestChangePerBook() {
+        BookDto first = bookService.createBook(book("Евгений Онегин", 1833));
+        bookService.updateBook(first.getId(), book("Евгений Онегин. Роман в стихах", 1833));
+        BookDto second = bookService.createBook(book("Капитанская дочка", 1836));
+        relay.relayBatch();
+
+        BookChangesDto changes = changeFeedService.getChanges(since, 100);
+        assertThat(changes.getChanges()).extracting(BookChangeDto::getBookId)
+                .containsExactly(first.getId(), second.getId());
+        assertThat(changes.getChanges().get(0).getBook().getTitle()).isEqualTo("Евгений Онегин. Роман в стихах");
+
+        // Новое изменение первой книги вытесняет ее прежнюю запись и встает в конец ленты
+        bookService.updateBook(first.getId(), book("Евгений Онегин", 1833));
+        bookService.deleteBook(second.getId());
+        relay.relayBatch();
+
+        changes = changeFeedService.getChanges(since, 100);
+        assertThat(changes.getChanges()).extracting(BookChangeDto::getBookId)
+                .containsExactly(first.getId(), second.getId());
+        assertThat(changes.getChanges()).extracting(BookChangeDto::getType)
+                .containsExactly(BookChangeKind.UPSERT, BookChangeKind.DELETE);
+        assertThat(changes.getChanges().get(1).getBook()).isNull();
+        assertThat(changes.getChanges().get(0).getSeq()).isLessThan(changes.getChanges().get(1).getSeq());
+        assertThat(changes.getNextSince()).isEqualTo(changes.getChanges().get(1).getSeq());
+        assertThat(changes.isHasMore()).isFalse();
+        assertThat(changeFeedService.getChanges(changes.getNextSince(), 100).getChanges()).isEmpty();
+
+        bookService.deleteBook(first.getId());
+    }
+
+    @Test
+    void pagesThroughFeedWithNextSince() {
+        BookDto first = bookService.createBook(book("Мцыри", 1840));
+        BookDto second = bookService.createBook(book("Герой нашего времени", 1840));
+        relay.relayBatch();
+
+        BookChangesDto page = changeFeedService.getChanges(since, 1);
+        assertThat(page.getChanges()).extracting(BookChangeDto::getBookId).containsExactly(first.getId());
+        assertThat(page.isHasMore()).isTrue();
+        page = changeFeedService.getChanges(page.getNextSince(), 1);
+        assertThat(page.getChanges()).extracting(BookChangeDto::getBookId).containsExactly(second.getId());
+        assertThat(page.isHasMore()).isFalse();
+
+        bookService.deleteBook(first.getId());
+        bookService.deleteBook(second.getId());
+    }
+
+    @Test
+    void longPollAnswersAfterNextBatch() throws Exception {
+        DeferredResult<BookChangesDto> result = changeFeedService.awaitChanges(since, 100, 30);
+        assertThat(result.hasResult()).isFalse();
+
+        BookDto book = bookService.createBook(book("Бедные люди", 1846));
+        assertThat(result.hasResult()).isFalse();
+        relay.relayBatch();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!result.hasResult() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(result.hasResult()).isTrue();
+        BookChangesDto changes = (BookChangesDto) result.getResult();
+        assertThat(changes.getChanges()).extracting(BookChangeDto::getBookId).containsExactly(book.getId());
+
+        bookService.deleteBook(book.getId());
+    }
+
+    @Test
+    void longPollWakesOnChangesWrittenByAnotherInstance() throws Exception {
+        DeferredResult<BookChangesDto> result = changeFeedService.awaitChanges(since, 100, 30);
+
+        // Запись другого экземпляра: событие BookChangesAppendedEvent на этом экземпляре не публикуется
+        changeRepository.saveAndFlush(new BookChange(since + 1, Long.MAX_VALUE, BookChangeKind.DELETE));
+        assertThat(result.hasResult()).isFalse();
+        changeFeedService.pollChanges();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!result.hasResult() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(result.hasResult()).isTrue();
+        assertThat(((BookChangesDto) result.getResult()).getChanges()).extracting(BookChangeDto::getSeq)
+                .containsExactly(since + 1);
+    }
+
+    @Test
+    void longPollAnswersAtOnceWhenChangesExist() {
+        BookDto book = bookService.createBook(book("Двойник", 1846));
+        relay.relayBatch();
+
+        DeferredResult<BookChangesDto> result = changeFeedService.awaitChanges(since, 100, 30);
+
+        assertThat(result.hasResult()).isTrue();
+        bookService.deleteBook(book.getId());
+    }
+
+    private static CreateBookDto book(String title, int year) {
+        return new CreateBookDto(title, "Русский классик", null, year, 200, null);
+    }
+}
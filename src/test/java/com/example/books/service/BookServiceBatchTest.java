@@ -0,0 +1,68 @@
+package com.example.books.service;
+
+import com.example.books.dto.BatchCreateResultDto;
+import com.example.books.dto.BatchItemResultDto;
+import com.example.books.dto.CreateBookDto;
+import com.example.books.event.BookChangeType;
+import com.example.books.event.BookChangedEvent;
+import com.example.books.model.Book;
+import com.example.books.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Пакетное создание и порционное удаление: нарушение UNIQUE отклоняет одну строку, события удаления несут ISBN
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:batchtest")
+@RecordApplicationEvents
+class BookServiceBatchTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void isbnMissedByFilterRejectsOnlyItsRow() {
+        // Запись мимо сервиса: фильтр Блума о ней не знает, и проверка в БД для этого ISBN пропускается
+        bookRepository.saveAndFlush(new Book("Обломов", "Иван Гончаров", null, 1859, 640, "9785000000021"));
+
+        BatchCreateResultDto result = bookService.createBooks(List.of(
+                new CreateBookDto("Обрыв", "Иван Гончаров", null, 1869, 720, "9785000000014"),
+                new CreateBookDto("Обломов", "Иван Гончаров", null, 1859, 640, "9785000000021"),
+                new CreateBookDto("Фрегат «Паллада»", "Иван Гончаров", null, 1858, 800, null)));
+
+        assertThat(result.getItems()).extracting(BatchItemResultDto::getOutcome).containsExactly(
+                BatchItemResultDto.Outcome.CREATED, BatchItemResultDto.Outcome.DUPLICATE, BatchItemResultDto.Outcome.CREATED);
+        assertThat(bookRepository.existsByIsbn("9785000000014")).isTrue();
+    }
+
+    @Test
+    void chunkedDeletePublishesIsbn() {
+        Long first = bookRepository.saveAndFlush(
+                new Book("Отцы и дети", "Иван Тургенев", null, 1862, 288, "9785000000038")).getId();
+        Long second = bookRepository.saveAndFlush(
+                new Book("Рудин", "Иван Тургенев", null, 1856, 224, "9785000000045")).getId();
+        Long third = bookRepository.saveAndFlush(
+                new Book("Дым", "Иван Тургенев", null, 1867, 256, null)).getId();
+
+        bookService.deleteAllBooks(2);
+
+        Map<Long, String> deletedIsbns = events.stream(BookChangedEvent.class)
+                .filter(event -> event.type() == BookChangeType.DELETED && event.previousIsbn() != null)
+                .collect(Collectors.toMap(BookChangedEvent::bookId, BookChangedEvent::previousIsbn));
+        assertThat(deletedIsbns).containsEntry(first, "9785000000038").containsEntry(second, "9785000000045")
+                .doesNotContainKey(third);
+    }
+}
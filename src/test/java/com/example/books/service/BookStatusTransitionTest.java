@@ -0,0 +1,134 @@
+package com.example.books.service;
+
+import com.example.books.exception.BookConflictException;
+import com.example.books.exception.IllegalStatusTransitionException;
+import com.example.books.model.Book;
+import com.example.books.model.BookStatus;
+import com.example.books.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Переходы статуса compare-and-set: из конкурирующих запросов на один переход выигрывает ровно один
+@SpringBootTest
+class BookStatusTransitionTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private Long bookId;
+
+    @BeforeEach
+    void setUp() {
+        bookId = bookRepository.saveAndFlush(new Book("Мастер и Маргарита", "Михаил Булгаков", null, 1967, 480, null))
+                .getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteById(bookId);
+    }
+
+    @Test
+    void onlyOneConcurrentBorrowWins() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        bookService.transitionBookStatus(bookId, BookStatus.AVAILABLE, BookStatus.BORROWED);
+                        return true;
+                    } catch (BookConflictException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int wins = 0;
+            for (Future<Boolean> attempt : attempts) {
+                if (attempt.get(30, TimeUnit.SECONDS)) {
+                    wins++;
+                }
+            }
+            assertThat(wins).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Book book = bookRepository.findById(bookId).orElseThrow();
+        assertThat(book.getStatus()).isEqualTo(BookStatus.BORROWED);
+        assertThat(book.getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void borrowAndReturnRaceKeepsConsistentStatus() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> workers = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                boolean borrower = i % 2 == 0;
+                workers.add(executor.submit(() -> {
+                    int succeeded = 0;
+                    for (int j = 0; j < 25; j++) {
+                        try {
+                            if (borrower) {
+                                bookService.transitionBookStatus(bookId, BookStatus.AVAILABLE, BookStatus.BORROWED);
+                            } else {
+                                bookService.transitionBookStatus(bookId, BookStatus.BORROWED, BookStatus.AVAILABLE);
+                            }
+                            succeeded++;
+                        } catch (BookConflictException e) {
+                            // Статус уже изменен другим потоком
+                        }
+                    }
+                    return succeeded;
+                }));
+            }
+            int borrows = 0;
+            int returns = 0;
+            for (int i = 0; i < THREADS; i++) {
+                int succeeded = workers.get(i).get(60, TimeUnit.SECONDS);
+                if (i % 2 == 0) {
+                    borrows += succeeded;
+                } else {
+                    returns += succeeded;
+                }
+            }
+            // Переходы чередуются: выдач либо столько же, сколько возвратов, либо на одну больше
+            assertThat(borrows - returns).isBetween(0, 1);
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            assertThat(book.getStatus()).isEqualTo(borrows > returns ? BookStatus.BORROWED : BookStatus.AVAILABLE);
+            assertThat(book.getVersion()).isEqualTo((long) borrows + returns);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void illegalTransitionIsRejectedWithoutUpdate() {
+        assertThatThrownBy(() -> bookService.transitionBookStatus(bookId, BookStatus.AVAILABLE, BookStatus.AVAILABLE))
+                .isInstanceOf(IllegalStatusTransitionException.class);
+        assertThat(bookRepository.findById(bookId).orElseThrow().getVersion()).isZero();
+    }
+}
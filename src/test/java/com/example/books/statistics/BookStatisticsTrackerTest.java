@@ -0,0 +1,146 @@
+package com.example.books.statistics;
+
+import com.example.books.dto.BookDto;
+import com.example.books.event.BookChangedEvent;
+import com.example.books.model.BookStatus;
+import com.example.books.repository.BookRepository;
+import com.example.books.repository.StatusCount;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Сверка добавляет к счетчикам расхождение с БД только в окне без незавершенных транзакций:
+// изменение, уже зафиксированное, но еще не примененное, не учитывается дважды
+class BookStatisticsTrackerTest {
+
+    private static final int BOOKS = 1000;
+
+    private final AtomicLongArray database = new AtomicLongArray(BookStatus.values().length);
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+
+    private final BookStatisticsTracker tracker =
+            new BookStatisticsTracker(bookRepository, mock(PlatformTransactionManager.class));
+
+    BookStatisticsTrackerTest() {
+        database.set(BookStatus.AVAILABLE.ordinal(), BOOKS);
+        when(bookRepository.countGroupByStatus()).thenAnswer(invocation -> {
+            List<StatusCount> rows = new ArrayList<>();
+            for (BookStatus status : BookStatus.values()) {
+                rows.add(row(status, database.get(status.ordinal())));
+            }
+            return rows;
+        });
+    }
+
+    @Test
+    void firstSnapshotReconcilesWithDatabase() {
+        Map<String, Long> statistics = tracker.snapshot();
+
+        assertThat(statistics).containsEntry("available", (long) BOOKS).containsEntry("total", (long) BOOKS);
+    }
+
+    @Test
+    void reconcileDuringCommitsDoesNotCountChangesTwice() throws Exception {
+        tracker.reconcile();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 5000; i++) {
+                        boolean borrow = i % 2 == 0;
+                        BookStatus from = borrow ? BookStatus.AVAILABLE : BookStatus.BORROWED;
+                        BookStatus to = borrow ? BookStatus.BORROWED : BookStatus.AVAILABLE;
+                        commit(() -> {
+                            tracker.onBookChanged(BookChangedEvent.updated(book(to), from));
+                            database.decrementAndGet(from.ordinal());
+                            database.incrementAndGet(to.ordinal());
+                        });
+                    }
+                }));
+            }
+            Future<?> reconciler = executor.submit(() -> {
+                while (running.get()) {
+                    tracker.reconcile();
+                }
+            });
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            reconciler.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Без завершающей сверки: счетчики должны совпасть с БД сами
+        assertThat(tracker.snapshot())
+                .containsEntry("available", database.get(BookStatus.AVAILABLE.ordinal()))
+                .containsEntry("borrowed", database.get(BookStatus.BORROWED.ordinal()))
+                .containsEntry("total", (long) BOOKS);
+    }
+
+    @Test
+    void rolledBackChangeIsNotApplied() {
+        tracker.reconcile();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tracker.onBookChanged(BookChangedEvent.updated(book(BookStatus.BORROWED), BookStatus.AVAILABLE));
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(tracker.snapshot()).containsEntry("available", (long) BOOKS).containsEntry("borrowed", 0L);
+    }
+
+    // Транзакция: событие публикуется до фиксации в БД, счетчики меняются после нее
+    private static void commit(Runnable transaction) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            transaction.run();
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static BookDto book(BookStatus status) {
+        BookDto book = new BookDto();
+        book.setId(1L);
+        book.setStatus(status);
+        return book;
+    }
+
+    private static StatusCount row(BookStatus status, long count) {
+        return new StatusCount() {
+            @Override
+            public BookStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.books.validation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Разбор ISBN: контрольные цифры, допустимые написания и приведение к ISBN-13
+class IsbnsTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "9785171021436, 9785171021436",
+            "978-5-17-102143-6, 9785171021436",
+            "978 5 17 102143 6, 9785171021436",
+            "ISBN 978-5-17-102143-6, 9785171021436",
+            "ISBN-13: 9785171021436, 9785171021436",
+            "0306406152, 9780306406157",
+            "0-306-40615-2, 9780306406157",
+            "ISBN-10 0306406152, 9780306406157",
+            "080442957X, 9780804429573",
+            "0-8044-2957-x, 9780804429573"
+    })
+    void normalizesValidIsbnToIsbn13(String value, String expected) {
+        assertThat(Isbns.isValid(value)).isTrue();
+        assertThat(Isbns.normalize(value)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "9785171021437",      // неверная контрольная цифра ISBN-13
+            "0306406153",         // неверная контрольная цифра ISBN-10
+            "9775171021436",      // ISBN-13 должен начинаться с 978 или 979
+            "978--5171021436",    // два разделителя подряд
+            "-9785171021436",     // разделитель в начале
+            "9785171021436-",     // разделитель в конце
+            "97851710214",        // неверная длина
+            "X306406152",         // X допустим только последним символом ISBN-10
+            "978517102143X",      // X недопустим в ISBN-13
+            "ISBN",               // только префикс
+            "ISBN9785171021436",  // префикс без разделителя
+            "isbn 9785171021436", // префикс в нижнем регистре
+            "978517102143a",
+            ""
+    })
+    void rejectsInvalidIsbn(String value) {
+        assertThat(Isbns.isValid(value)).isFalse();
+        assertThat(Isbns.normalize(value)).isSameAs(value);
+    }
+
+    @Test
+    void canonicalIsbnIsReturnedAsIs() {
+        String isbn = "9785171021436";
+        assertThat(Isbns.normalize(isbn)).isSameAs(isbn);
+        assertThat(Isbns.isValid(null)).isFalse();
+        assertThat(Isbns.normalize(null)).isNull();
+    }
+}